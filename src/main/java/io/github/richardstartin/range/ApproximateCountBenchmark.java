@@ -0,0 +1,114 @@
+package io.github.richardstartin.range;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.roaringbitmap.RangeBitmap;
+import org.roaringbitmap.RoaringBitmap;
+
+
+public class ApproximateCountBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class SampledTransactions extends Transactions {
+
+    @Param({"UNIFORM(100,1000000)", "NORMAL(500000,100000)", "EXP(0.00001)"})
+    String priceDistribution;
+
+    @Param({"UNIFORM", "STRATIFIED"})
+    SampledIndex.Sampling sampling;
+
+    @Param({"0.001", "0.01"})
+    double rate;
+
+    @Param({"0.01", "0.05"})
+    double tolerance;
+
+    SampledIndex sampledIndex;
+    long exactCount;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      super.setup();
+      columns();
+      LongSupplier distribution = Distribution.parse(42, priceDistribution);
+      long minPrice = Long.MAX_VALUE;
+      long maxPrice = Long.MIN_VALUE;
+      for (int i = 0; i < prices.length; i++) {
+        prices[i] = Math.max(0, distribution.getAsLong());
+        minPrice = Math.min(minPrice, prices[i]);
+        maxPrice = Math.max(maxPrice, prices[i]);
+      }
+      var priceAppender = RangeBitmap.appender(maxPrice - minPrice);
+      for (long price : prices) {
+        priceAppender.add(price - minPrice);
+      }
+      this.priceIndex = priceAppender.build();
+      this.minPrice = minPrice;
+      long[] sortedPrices = Arrays.copyOf(prices, prices.length);
+      Arrays.sort(sortedPrices);
+      maxPriceThreshold = sortedPrices[sortedPrices.length / 2];
+      sampledIndex = new SampledIndex(timestamps, prices, quantities, rate, sampling, 42);
+      exactCount = exact(this);
+    }
+  }
+
+  @Benchmark
+  public long index(SampledTransactions state) {
+    return exact(state);
+  }
+
+  @Benchmark
+  public long binarySearchThenIndex(SampledTransactions state) {
+    int qty = state.minQuantityThreshold - state.minQuantity;
+    long price = state.maxPriceThreshold - state.minPrice;
+    long begin = state.minTimeThreshold;
+    long end = state.maxTimeThreshold;
+    int first = Collections.binarySearch(state.transactions, new Transaction(0, 0, begin),
+        Comparator.comparingLong(Transaction::getTimestamp));
+    int last = Collections.binarySearch(state.transactions, new Transaction(0, 0, end),
+        Comparator.comparingLong(Transaction::getTimestamp));
+    RoaringBitmap inTimeRange = RoaringBitmap.bitmapOfRange(first, last + 1);
+    RoaringBitmap matchesQuantity = state.quantityIndex.gte(qty, inTimeRange);
+    return state.priceIndex.lteCardinality(price, matchesQuantity);
+  }
+
+  @Benchmark
+  public long approximate(SampledTransactions state, ErrorCounters counters) {
+    SampledIndex.Estimate estimate = state.sampledIndex.estimate(state.minTimeThreshold, state.maxTimeThreshold,
+        state.minQuantityThreshold, state.maxPriceThreshold);
+    return record(state, counters, estimate);
+  }
+
+  @Benchmark
+  public long approximateWithFallback(SampledTransactions state, ErrorCounters counters) {
+    SampledIndex.Estimate estimate = state.sampledIndex.count(state.minTimeThreshold, state.maxTimeThreshold,
+        state.minQuantityThreshold, state.maxPriceThreshold, state.tolerance, () -> exact(state));
+    return record(state, counters, estimate);
+  }
+
+  private static long record(SampledTransactions state, ErrorCounters counters, SampledIndex.Estimate estimate) {
+    long count = estimate.count();
+    counters.relativeError = Math.abs(count - state.exactCount) / (double) Math.max(1, state.exactCount);
+    counters.intervalWidth = estimate.relativeHalfWidth();
+    counters.fallbacks = estimate.isExact() ? 1 : 0;
+    return count;
+  }
+
+  private static long exact(Transactions state) {
+    int qty = state.minQuantityThreshold - state.minQuantity;
+    long price = state.maxPriceThreshold - state.minPrice;
+    long begin = state.minTimeThreshold - state.minTime;
+    long end = state.maxTimeThreshold - state.minTime;
+    RoaringBitmap inTimeRange = state.timestampIndex.between(begin, end);
+    RoaringBitmap matchesQuantity = state.quantityIndex.gte(qty, inTimeRange);
+    return state.priceIndex.lteCardinality(price, matchesQuantity);
+  }
+}
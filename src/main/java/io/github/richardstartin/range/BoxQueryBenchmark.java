@@ -0,0 +1,112 @@
+package io.github.richardstartin.range;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.roaringbitmap.IntConsumer;
+import org.roaringbitmap.RoaringBitmap;
+
+
+public class BoxQueryBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class BoxTransactions extends Transactions {
+
+    @Param({"0.01", "0.1", "0.5"})
+    double timeFraction;
+
+    @Param({"0.1", "0.5", "0.9"})
+    double priceFraction;
+
+    @Param({"0.5"})
+    double quantityFraction;
+
+    @Param({"1024"})
+    int blockSize;
+
+    ZOrderIndex zOrderIndex;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      super.setup();
+      columns();
+      int window = Math.max(1, (int) (timeFraction * size));
+      int start = (size - window) / 2;
+      minTimeThreshold = timestamps[start];
+      maxTimeThreshold = timestamps[start + window - 1];
+      long[] sortedPrices = prices.clone();
+      Arrays.sort(sortedPrices);
+      maxPriceThreshold = sortedPrices[(int) (priceFraction * (size - 1))];
+      long[] sortedQuantities = quantities.clone();
+      Arrays.sort(sortedQuantities);
+      minQuantityThreshold = (int) sortedQuantities[(int) ((1 - quantityFraction) * (size - 1))];
+      zOrderIndex = new ZOrderIndex(timestamps, prices, quantities, blockSize);
+    }
+  }
+
+  @Benchmark
+  public long index(BoxTransactions state) {
+    int qty = state.minQuantityThreshold - state.minQuantity;
+    long price = state.maxPriceThreshold - state.minPrice;
+    long begin = state.minTimeThreshold - state.minTime;
+    long end = state.maxTimeThreshold - state.minTime;
+    RoaringBitmap inTimeRange = state.timestampIndex.between(begin, end);
+    RoaringBitmap matchesQuantity = state.quantityIndex.gte(qty, inTimeRange);
+    return state.priceIndex.lteCardinality(price, matchesQuantity);
+  }
+
+  @Benchmark
+  public long binarySearchThenIndex(BoxTransactions state) {
+    int qty = state.minQuantityThreshold - state.minQuantity;
+    long price = state.maxPriceThreshold - state.minPrice;
+    long begin = state.minTimeThreshold;
+    long end = state.maxTimeThreshold;
+    int first = Collections.binarySearch(state.transactions, new Transaction(0, 0, begin),
+        Comparator.comparingLong(Transaction::getTimestamp));
+    int last = Collections.binarySearch(state.transactions, new Transaction(0, 0, end),
+        Comparator.comparingLong(Transaction::getTimestamp));
+    RoaringBitmap inTimeRange = RoaringBitmap.bitmapOfRange(first, last + 1);
+    RoaringBitmap matchesQuantity = state.quantityIndex.gte(qty, inTimeRange);
+    return state.priceIndex.lteCardinality(price, matchesQuantity);
+  }
+
+  @Benchmark
+  public long binarySearchBranchFreeScan(BoxTransactions state) {
+    int qty = state.minQuantityThreshold;
+    long price = state.maxPriceThreshold;
+    long begin = state.minTimeThreshold;
+    long end = state.maxTimeThreshold;
+    int first = Collections.binarySearch(state.transactions, new Transaction(0, 0, begin),
+        Comparator.comparingLong(Transaction::getTimestamp));
+    int last = Collections.binarySearch(state.transactions, new Transaction(0, 0, end),
+        Comparator.comparingLong(Transaction::getTimestamp));
+    long count = 0;
+    for (int i = first; i <= last; i++) {
+      Transaction transaction = state.transactions.get(i);
+      count += (Math.min(1, Math.max(transaction.quantity - qty, 0)) + Math.min(1, Math.max(price - transaction.price, 0))) >>> 1;
+    }
+    return count;
+  }
+
+  @Benchmark
+  public long zOrderCount(BoxTransactions state) {
+    return state.zOrderIndex.count(state.minTimeThreshold, state.maxTimeThreshold,
+        Long.MIN_VALUE, state.maxPriceThreshold,
+        state.minQuantityThreshold, Long.MAX_VALUE);
+  }
+
+  @Benchmark
+  public void zOrderRows(BoxTransactions state, Blackhole bh) {
+    RoaringBitmap matches = state.zOrderIndex.rows(state.minTimeThreshold, state.maxTimeThreshold,
+        Long.MIN_VALUE, state.maxPriceThreshold,
+        state.minQuantityThreshold, Long.MAX_VALUE);
+    matches.forEach((IntConsumer) i -> bh.consume(state.transactions.get(i)));
+  }
+}
@@ -0,0 +1,122 @@
+package io.github.richardstartin.range;
+
+import java.util.Collections;
+import java.util.Comparator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+
+public class CompiledFilterBenchmark {
+
+  private static final int TIMESTAMP = 0;
+  private static final int QUANTITY = 1;
+  private static final int PRICE = 2;
+
+  static final class Kernels {
+
+    final FilterCompiler compiler;
+    final FilterCompiler.CompiledFilter scan;
+    final long[] scanBounds;
+    final FilterCompiler.CompiledFilter window;
+    final long[] windowBounds;
+
+    Kernels(Transactions state) {
+      compiler = new FilterCompiler(state.timestamps, state.quantities, state.prices);
+      Filter scanFilter = Filter.and(
+          Filter.gte(QUANTITY, state.minQuantityThreshold),
+          Filter.lte(PRICE, state.maxPriceThreshold),
+          Filter.between(TIMESTAMP, state.minTimeThreshold, state.maxTimeThreshold));
+      scan = compiler.compile(scanFilter);
+      scanBounds = scanFilter.bounds();
+      Filter windowFilter = Filter.and(
+          Filter.gte(QUANTITY, state.minQuantityThreshold),
+          Filter.lte(PRICE, state.maxPriceThreshold));
+      window = compiler.compile(windowFilter);
+      windowBounds = windowFilter.bounds();
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class CompiledTransactions extends Transactions {
+
+    Kernels kernels;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      super.setup();
+      columns();
+      kernels = new Kernels(this);
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class PollutedCompiledTransactions extends CountTransactionsBenchmark.PollutedTransactions {
+
+    Kernels kernels;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      super.setup();
+      columns();
+      kernels = new Kernels(this);
+      Filter[] pollution = {
+          Filter.or(Filter.lte(QUANTITY, 10), Filter.gte(PRICE, 1000)),
+          Filter.and(Filter.between(TIMESTAMP, minTime, minTime + 3600), Filter.lte(QUANTITY, 100)),
+          Filter.or(Filter.and(Filter.gte(QUANTITY, 5000), Filter.lte(PRICE, 10)), Filter.gte(TIMESTAMP, minTime)),
+          Filter.and(Filter.between(PRICE, 10, 20), Filter.between(QUANTITY, 10, 20), Filter.gte(TIMESTAMP, 0))
+      };
+      for (int i = 0; i < 20; i++) {
+        for (Filter filter : pollution) {
+          kernels.compiler.compile(filter).count(filter.bounds(), 0, size);
+        }
+      }
+    }
+  }
+
+  @Benchmark
+  public long compiledScan(CompiledTransactions state) {
+    return state.kernels.scan.count(state.kernels.scanBounds, 0, state.size);
+  }
+
+  @Benchmark
+  public long compiledScanPolluted(PollutedCompiledTransactions state) {
+    return state.kernels.scan.count(state.kernels.scanBounds, 0, state.size);
+  }
+
+  @Benchmark
+  public long branchFreeScan(CompiledTransactions state) {
+    long qty = state.minQuantityThreshold;
+    long price = state.maxPriceThreshold;
+    long begin = state.minTimeThreshold;
+    long end = state.maxTimeThreshold;
+    long count = 0;
+    for (int i = 0; i < state.size; i++) {
+      count += (state.quantities[i] >= qty ? 1 : 0)
+          & (state.prices[i] <= price ? 1 : 0)
+          & (state.timestamps[i] >= begin ? 1 : 0)
+          & (state.timestamps[i] <= end ? 1 : 0);
+    }
+    return count;
+  }
+
+  @Benchmark
+  public long binarySearchThenCompiled(CompiledTransactions state) {
+    return binarySearchThenCompiled(state, state.kernels);
+  }
+
+  @Benchmark
+  public long binarySearchThenCompiledPolluted(PollutedCompiledTransactions state) {
+    return binarySearchThenCompiled(state, state.kernels);
+  }
+
+  private static long binarySearchThenCompiled(Transactions state, Kernels kernels) {
+    int first = Collections.binarySearch(state.transactions, new Transaction(0, 0, state.minTimeThreshold),
+        Comparator.comparingLong(Transaction::getTimestamp));
+    int last = Collections.binarySearch(state.transactions, new Transaction(0, 0, state.maxTimeThreshold),
+        Comparator.comparingLong(Transaction::getTimestamp));
+    return kernels.window.count(kernels.windowBounds, first, last + 1);
+  }
+}
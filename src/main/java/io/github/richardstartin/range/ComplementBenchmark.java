@@ -0,0 +1,122 @@
+package io.github.richardstartin.range;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.roaringbitmap.IntConsumer;
+import org.roaringbitmap.RoaringBitmap;
+
+public class ComplementBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class WideRangeBitmapState extends RangeEvaluationBenchmark.BaseState<RangeBitmapEvaluator> {
+
+    long otherMin;
+    long otherMax;
+
+    @Setup(Level.Trial)
+    public void init() {
+      super.init();
+      min = sortedValues[sortedValues.length / 20];
+      max = sortedValues[sortedValues.length - 1 - sortedValues.length / 20];
+      otherMin = sortedValues[sortedValues.length / 10];
+      otherMax = sortedValues[sortedValues.length - 1];
+    }
+
+    @Override
+    protected RangeBitmapEvaluator create() {
+      return new RangeBitmapEvaluator(values);
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class WideInvertedIndexState extends RangeEvaluationBenchmark.BaseState<InvertedIndexEvaluator> {
+
+    @Setup(Level.Trial)
+    public void init() {
+      super.init();
+      min = sortedValues[sortedValues.length / 20];
+      max = sortedValues[sortedValues.length - 1 - sortedValues.length / 20];
+    }
+
+    @Override
+    protected InvertedIndexEvaluator create() {
+      return new InvertedIndexEvaluator(values, sortedValues);
+    }
+  }
+
+  @Benchmark
+  public long neqCardinality(Transactions state) {
+    long price = state.maxPriceThreshold - state.minPrice;
+    return state.priceIndex.neq(price).getLongCardinality();
+  }
+
+  @Benchmark
+  public long neqComplementCardinality(Transactions state) {
+    long price = state.maxPriceThreshold - state.minPrice;
+    return Selection.complementOf(state.priceIndex.eq(price), state.size).cardinality();
+  }
+
+  @Benchmark
+  public void eqAndNeq(Transactions state, Blackhole bh) {
+    int qty = state.minQuantityThreshold - state.minQuantity;
+    long price = state.maxPriceThreshold - state.minPrice;
+    RoaringBitmap matchesQuantity = state.quantityIndex.eq(qty);
+    RoaringBitmap mismatchesPrice = state.priceIndex.neq(price, matchesQuantity);
+    mismatchesPrice.forEach((IntConsumer) i -> bh.consume(state.transactions.get(i)));
+  }
+
+  @Benchmark
+  public void eqAndNeqComplement(Transactions state, Blackhole bh) {
+    int qty = state.minQuantityThreshold - state.minQuantity;
+    long price = state.maxPriceThreshold - state.minPrice;
+    Selection matchesQuantity = Selection.of(state.quantityIndex.eq(qty));
+    Selection mismatchesPrice = Selection.complementOf(state.priceIndex.eq(price), state.size);
+    matchesQuantity.and(mismatchesPrice).forEach(i -> bh.consume(state.transactions.get(i)));
+  }
+
+  @Benchmark
+  public long wideRangeBitmapCardinality(WideRangeBitmapState state) {
+    return state.evaluator.between(state.min - state.minValue, state.max - state.minValue).getLongCardinality();
+  }
+
+  @Benchmark
+  public long wideRangeBitmapSelectCardinality(WideRangeBitmapState state) {
+    return state.evaluator.select(state.min - state.minValue, state.max - state.minValue).cardinality();
+  }
+
+  @Benchmark
+  public long wideRangeBitmapAnd(WideRangeBitmapState state) {
+    RoaringBitmap first = state.evaluator.between(state.min - state.minValue, state.max - state.minValue);
+    RoaringBitmap second = state.evaluator.between(state.otherMin - state.minValue, state.otherMax - state.minValue);
+    return RoaringBitmap.andCardinality(first, second);
+  }
+
+  @Benchmark
+  public long wideRangeBitmapSelectAnd(WideRangeBitmapState state) {
+    Selection first = state.evaluator.select(state.min - state.minValue, state.max - state.minValue);
+    Selection second = state.evaluator.select(state.otherMin - state.minValue, state.otherMax - state.minValue);
+    return first.andCardinality(second);
+  }
+
+  @Benchmark
+  public void wideRangeBitmapIterate(WideRangeBitmapState state, Blackhole bh) {
+    state.evaluator.between(state.min - state.minValue, state.max - state.minValue)
+        .forEach((IntConsumer) bh::consume);
+  }
+
+  @Benchmark
+  public void wideRangeBitmapSelectIterate(WideRangeBitmapState state, Blackhole bh) {
+    state.evaluator.select(state.min - state.minValue, state.max - state.minValue)
+        .forEach(bh::consume);
+  }
+
+  @Benchmark
+  public long wideInvertedIndexCardinality(WideInvertedIndexState state) {
+    return state.evaluator.between(state.min, state.max).getLongCardinality();
+  }
+
+  @Benchmark
+  public long wideInvertedIndexSelectCardinality(WideInvertedIndexState state) {
+    return state.evaluator.select(state.min, state.max).cardinality();
+  }
+}
@@ -0,0 +1,108 @@
+package io.github.richardstartin.range;
+
+import java.math.BigDecimal;
+import java.util.Arrays;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.roaringbitmap.RoaringBitmap;
+
+public class EncodingBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class EncodingState {
+
+    @Param({"NORMAL(0,100000)", "UNIFORM(-1000000,1000000)", "EXP(0.0001)"})
+    String distribution;
+
+    @Param("10000000")
+    int size;
+
+    double[] prices;
+    long[] unscaledPrices;
+
+    long minScaled;
+    RangeBitmapEvaluator naive;
+
+    OrderPreservingEncoding.Doubles doubles;
+    RangeEvaluator doubleIndex;
+
+    OrderPreservingEncoding.Decimals decimals;
+    RangeEvaluator decimalIndex;
+
+    double min;
+    double max;
+    BigDecimal decimalMin;
+    BigDecimal decimalMax;
+
+    @Setup(Level.Trial)
+    public void init() {
+      prices = new double[size];
+      unscaledPrices = new long[size];
+      LongSupplier supplier = Distribution.parse(42, distribution);
+      minScaled = Long.MAX_VALUE;
+      for (int i = 0; i < size; i++) {
+        unscaledPrices[i] = supplier.getAsLong();
+        prices[i] = unscaledPrices[i] / 100.0;
+        minScaled = Math.min(minScaled, unscaledPrices[i]);
+      }
+      double[] sorted = prices.clone();
+      Arrays.sort(sorted);
+      min = sorted[sorted.length / 2];
+      max = sorted[sorted.length / 2 + sorted.length / 20];
+      decimalMin = BigDecimal.valueOf(min);
+      decimalMax = BigDecimal.valueOf(max);
+      naive = new RangeBitmapEvaluator(naiveScale(prices));
+      doubles = OrderPreservingEncoding.Doubles.of(prices);
+      doubleIndex = doubles.index(doubles.encode(prices));
+      decimals = OrderPreservingEncoding.Decimals.of(unscaledPrices, 2);
+      decimalIndex = decimals.index(decimals.encodeUnscaled(unscaledPrices));
+    }
+  }
+
+  @Benchmark
+  public long[] naiveScale(EncodingState state) {
+    return naiveScale(state.prices);
+  }
+
+  @Benchmark
+  public long[] encodeDoubles(EncodingState state) {
+    return OrderPreservingEncoding.Doubles.of(state.prices).encode(state.prices);
+  }
+
+  @Benchmark
+  public long[] encodeDecimals(EncodingState state) {
+    return OrderPreservingEncoding.Decimals.of(state.unscaledPrices, 2).encodeUnscaled(state.unscaledPrices);
+  }
+
+  @Benchmark
+  public void naiveQuery(EncodingState state, Blackhole bh, Counters counters) {
+    long min = Math.round(state.min * 100) - state.minScaled;
+    long max = Math.round(state.max * 100) - state.minScaled;
+    consume(bh, state.naive.between(min, max), state.naive, counters);
+  }
+
+  @Benchmark
+  public void doubleQuery(EncodingState state, Blackhole bh, Counters counters) {
+    consume(bh, state.doubles.between(state.doubleIndex, state.min, state.max), state.doubleIndex, counters);
+  }
+
+  @Benchmark
+  public void decimalQuery(EncodingState state, Blackhole bh, Counters counters) {
+    consume(bh, state.decimals.between(state.decimalIndex, state.decimalMin, state.decimalMax), state.decimalIndex, counters);
+  }
+
+  private static long[] naiveScale(double[] prices) {
+    long[] scaled = new long[prices.length];
+    for (int i = 0; i < prices.length; i++) {
+      scaled[i] = Math.round(prices[i] * 100);
+    }
+    return scaled;
+  }
+
+  private static void consume(Blackhole bh, RoaringBitmap bitmap, RangeEvaluator evaluator, Counters counters) {
+    counters.rows += bitmap.getCardinality();
+    counters.serializedSize += evaluator.serializedSize();
+    bh.consume(bitmap);
+  }
+}
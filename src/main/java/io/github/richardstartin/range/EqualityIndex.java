@@ -0,0 +1,155 @@
+package io.github.richardstartin.range;
+
+import org.roaringbitmap.RoaringBitmap;
+
+public class EqualityIndex {
+
+  private static final int INLINE_THRESHOLD = 32;
+
+  private final long[] keys;
+  private final int[][] inlined;
+  private final RoaringBitmap[] bitmaps;
+  private final int shift;
+  private final int rows;
+  private final int serializedSize;
+
+  public EqualityIndex(long[] values) {
+    this.rows = values.length;
+    long[] keys = new long[16];
+    int[] counts = new int[16];
+    int shift = 64 - 4;
+    int distinct = 0;
+    for (long value : values) {
+      int slot = probe(keys, counts, shift, value);
+      if (counts[slot] == 0) {
+        keys[slot] = value;
+        distinct++;
+      }
+      counts[slot]++;
+      if (distinct * 2 > keys.length) {
+        long[] newKeys = new long[keys.length * 2];
+        int[] newCounts = new int[counts.length * 2];
+        shift--;
+        for (int i = 0; i < keys.length; i++) {
+          if (counts[i] != 0) {
+            int newSlot = probe(newKeys, newCounts, shift, keys[i]);
+            newKeys[newSlot] = keys[i];
+            newCounts[newSlot] = counts[i];
+          }
+        }
+        keys = newKeys;
+        counts = newCounts;
+      }
+    }
+    int[][] postings = new int[keys.length][];
+    for (int i = 0; i < keys.length; i++) {
+      if (counts[i] != 0) {
+        postings[i] = new int[counts[i]];
+      }
+    }
+    int[] positions = new int[keys.length];
+    for (int i = 0; i < values.length; i++) {
+      int slot = probe(keys, counts, shift, values[i]);
+      postings[slot][positions[slot]++] = i;
+    }
+    RoaringBitmap[] bitmaps = new RoaringBitmap[keys.length];
+    int ss = keys.length * (Long.BYTES + Integer.BYTES);
+    for (int i = 0; i < keys.length; i++) {
+      if (postings[i] != null) {
+        if (postings[i].length > INLINE_THRESHOLD) {
+          bitmaps[i] = RoaringBitmap.bitmapOf(postings[i]);
+          bitmaps[i].runOptimize();
+          postings[i] = null;
+          ss += bitmaps[i].serializedSizeInBytes();
+        } else {
+          ss += postings[i].length * Integer.BYTES;
+        }
+      }
+    }
+    this.keys = keys;
+    this.inlined = postings;
+    this.bitmaps = bitmaps;
+    this.shift = shift;
+    this.serializedSize = ss;
+  }
+
+  public RoaringBitmap eq(long value) {
+    int slot = find(value);
+    if (slot < 0) {
+      return new RoaringBitmap();
+    }
+    RoaringBitmap bitmap = bitmaps[slot];
+    return null == bitmap ? RoaringBitmap.bitmapOf(inlined[slot]) : bitmap.clone();
+  }
+
+  public RoaringBitmap neq(long value) {
+    RoaringBitmap result = RoaringBitmap.bitmapOfRange(0, rows);
+    removeMatches(value, result);
+    return result;
+  }
+
+  public RoaringBitmap neq(long value, RoaringBitmap context) {
+    RoaringBitmap result = context.clone();
+    removeMatches(value, result);
+    return result;
+  }
+
+  public RoaringBitmap in(long... values) {
+    RoaringBitmap result = new RoaringBitmap();
+    for (long value : values) {
+      int slot = find(value);
+      if (slot >= 0) {
+        RoaringBitmap bitmap = bitmaps[slot];
+        if (null == bitmap) {
+          result.add(inlined[slot]);
+        } else {
+          result.or(bitmap);
+        }
+      }
+    }
+    return result;
+  }
+
+  public int serializedSize() {
+    return serializedSize;
+  }
+
+  private void removeMatches(long value, RoaringBitmap result) {
+    int slot = find(value);
+    if (slot >= 0) {
+      RoaringBitmap bitmap = bitmaps[slot];
+      if (null == bitmap) {
+        for (int row : inlined[slot]) {
+          result.remove(row);
+        }
+      } else {
+        result.andNot(bitmap);
+      }
+    }
+  }
+
+  private int find(long value) {
+    int mask = keys.length - 1;
+    int slot = hash(value, shift);
+    while (inlined[slot] != null || bitmaps[slot] != null) {
+      if (keys[slot] == value) {
+        return slot;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private static int probe(long[] keys, int[] counts, int shift, long value) {
+    int mask = keys.length - 1;
+    int slot = hash(value, shift);
+    while (counts[slot] != 0 && keys[slot] != value) {
+      slot = (slot + 1) & mask;
+    }
+    return slot;
+  }
+
+  private static int hash(long value, int shift) {
+    return (int) ((value * 0x9E3779B97F4A7C15L) >>> shift);
+  }
+}
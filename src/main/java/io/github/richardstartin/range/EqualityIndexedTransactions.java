@@ -0,0 +1,22 @@
+package io.github.richardstartin.range;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+
+@State(Scope.Benchmark)
+public class EqualityIndexedTransactions extends Transactions {
+
+  EqualityIndex quantityEqualityIndex;
+  EqualityIndex priceEqualityIndex;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    super.setup();
+    columns();
+    quantityEqualityIndex = new EqualityIndex(quantities);
+    priceEqualityIndex = new EqualityIndex(prices);
+  }
+}
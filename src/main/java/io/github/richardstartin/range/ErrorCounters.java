@@ -0,0 +1,31 @@
+package io.github.richardstartin.range;
+
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class ErrorCounters {
+
+  double relativeError;
+  double intervalWidth;
+  int fallbacks;
+
+  public double relativeError() {
+    return relativeError;
+  }
+
+  public double intervalWidth() {
+    return intervalWidth;
+  }
+
+  public int fallbacks() {
+    return fallbacks;
+  }
+
+  @Setup(Level.Invocation)
+  public void reset() {
+    relativeError = 0;
+    intervalWidth = 0;
+    fallbacks = 0;
+  }
+}
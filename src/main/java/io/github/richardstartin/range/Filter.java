@@ -0,0 +1,177 @@
+package io.github.richardstartin.range;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+
+public abstract class Filter {
+
+  private static final MethodHandle BETWEEN;
+  private static final MethodHandle AND;
+  private static final MethodHandle OR;
+
+  static {
+    try {
+      MethodHandles.Lookup lookup = MethodHandles.lookup();
+      BETWEEN = lookup.findStatic(Filter.class, "between",
+          MethodType.methodType(int.class, int.class, int.class, long[][].class, long[].class, int.class));
+      AND = lookup.findStatic(Filter.class, "and", MethodType.methodType(int.class, int.class, int.class));
+      OR = lookup.findStatic(Filter.class, "or", MethodType.methodType(int.class, int.class, int.class));
+    } catch (NoSuchMethodException | IllegalAccessException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  public static Filter between(int column, long min, long max) {
+    checkRange(min, max);
+    return new Between(column, min, max);
+  }
+
+  public static Filter gte(int column, long min) {
+    return new Between(column, min, Long.MAX_VALUE);
+  }
+
+  public static Filter lte(int column, long max) {
+    return new Between(column, Long.MIN_VALUE, max);
+  }
+
+  public static Filter and(Filter... filters) {
+    return new Junction(filters, AND, "and");
+  }
+
+  public static Filter or(Filter... filters) {
+    return new Junction(filters, OR, "or");
+  }
+
+  public long[] bounds() {
+    long[] bounds = new long[2 * leaves()];
+    writeBounds(bounds, 0);
+    return bounds;
+  }
+
+  static void checkBounds(long[] bounds) {
+    for (int i = 0; i + 1 < bounds.length; i += 2) {
+      checkRange(bounds[i], bounds[i + 1]);
+    }
+  }
+
+  private static void checkRange(long min, long max) {
+    if (min > max) {
+      throw new IllegalArgumentException("empty range [" + min + ", " + max + "]");
+    }
+  }
+
+  abstract String shape();
+
+  abstract int leaves();
+
+  abstract int writeBounds(long[] bounds, int offset);
+
+  abstract MethodHandle compile(int offset);
+
+  private static int between(int column, int offset, long[][] columns, long[] bounds, int row) {
+    long value = columns[column][row] - bounds[offset];
+    long range = bounds[offset + 1] - bounds[offset];
+    return value + Long.MIN_VALUE <= range + Long.MIN_VALUE ? 1 : 0;
+  }
+
+  private static int and(int left, int right) {
+    return left & right;
+  }
+
+  private static int or(int left, int right) {
+    return left | right;
+  }
+
+  private static final class Between extends Filter {
+
+    private final int column;
+    private final long min;
+    private final long max;
+
+    private Between(int column, long min, long max) {
+      this.column = column;
+      this.min = min;
+      this.max = max;
+    }
+
+    @Override
+    String shape() {
+      return "between(" + column + ")";
+    }
+
+    @Override
+    int leaves() {
+      return 1;
+    }
+
+    @Override
+    int writeBounds(long[] bounds, int offset) {
+      bounds[offset] = min;
+      bounds[offset + 1] = max;
+      return offset + 2;
+    }
+
+    @Override
+    MethodHandle compile(int offset) {
+      return MethodHandles.insertArguments(BETWEEN, 0, column, offset);
+    }
+  }
+
+  private static final class Junction extends Filter {
+
+    private final Filter[] filters;
+    private final MethodHandle combiner;
+    private final String name;
+
+    private Junction(Filter[] filters, MethodHandle combiner, String name) {
+      if (filters.length == 0) {
+        throw new IllegalArgumentException(name + " requires at least one filter");
+      }
+      this.filters = filters;
+      this.combiner = combiner;
+      this.name = name;
+    }
+
+    @Override
+    String shape() {
+      StringBuilder shape = new StringBuilder(name).append('(');
+      for (int i = 0; i < filters.length; i++) {
+        shape.append(i == 0 ? "" : ",").append(filters[i].shape());
+      }
+      return shape.append(')').toString();
+    }
+
+    @Override
+    int leaves() {
+      int leaves = 0;
+      for (Filter filter : filters) {
+        leaves += filter.leaves();
+      }
+      return leaves;
+    }
+
+    @Override
+    int writeBounds(long[] bounds, int offset) {
+      for (Filter filter : filters) {
+        offset = filter.writeBounds(bounds, offset);
+      }
+      return offset;
+    }
+
+    @Override
+    MethodHandle compile(int offset) {
+      MethodHandle result = filters[0].compile(offset);
+      offset += 2 * filters[0].leaves();
+      MethodType type = MethodType.methodType(int.class, long[][].class, long[].class, int.class);
+      for (int i = 1; i < filters.length; i++) {
+        MethodHandle next = filters[i].compile(offset);
+        offset += 2 * filters[i].leaves();
+        MethodHandle combined = MethodHandles.collectArguments(
+            MethodHandles.collectArguments(combiner, 1, next), 0, result);
+        result = MethodHandles.permuteArguments(combined, type, 0, 1, 2, 0, 1, 2);
+      }
+      return result;
+    }
+  }
+}
@@ -0,0 +1,139 @@
+package io.github.richardstartin.range;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.roaringbitmap.RoaringBitmap;
+
+public final class FilterCompiler {
+
+  public interface Kernel {
+
+    long count(long[][] columns, long[] bounds, int from, int to);
+
+    RoaringBitmap select(long[][] columns, long[] bounds, int from, int to);
+  }
+
+  private static final String TEMPLATE_NAME = FilterKernel.class.getName().replace('.', '/');
+  private static final byte[] TEMPLATE = loadTemplate();
+  private static final AtomicInteger KERNEL_IDS = new AtomicInteger();
+  // one class per filter shape for the life of the JVM; columns and bounds are passed per call
+  private static final Map<String, Kernel> KERNELS = new ConcurrentHashMap<>();
+  private static MethodHandle pendingPredicate;
+
+  private final long[][] columns;
+
+  public FilterCompiler(long[]... columns) {
+    this.columns = columns;
+  }
+
+  public CompiledFilter compile(Filter filter) {
+    Kernel kernel = KERNELS.computeIfAbsent(filter.shape(), shape -> define(filter.compile(0)));
+    return new CompiledFilter(kernel, columns, filter.leaves());
+  }
+
+  public static final class CompiledFilter {
+
+    private final Kernel kernel;
+    private final long[][] columns;
+    private final int leaves;
+
+    private CompiledFilter(Kernel kernel, long[][] columns, int leaves) {
+      this.kernel = kernel;
+      this.columns = columns;
+      this.leaves = leaves;
+    }
+
+    public long count(long[] bounds, int from, int to) {
+      checkBounds(bounds);
+      return kernel.count(columns, bounds, from, to);
+    }
+
+    public RoaringBitmap select(long[] bounds, int from, int to) {
+      checkBounds(bounds);
+      return kernel.select(columns, bounds, from, to);
+    }
+
+    private void checkBounds(long[] bounds) {
+      if (bounds.length != 2 * leaves) {
+        throw new IllegalArgumentException("expected " + 2 * leaves + " bounds but got " + bounds.length);
+      }
+      Filter.checkBounds(bounds);
+    }
+  }
+
+  static MethodHandle takePredicate() {
+    MethodHandle predicate = pendingPredicate;
+    pendingPredicate = null;
+    return predicate;
+  }
+
+  private static synchronized Kernel define(MethodHandle predicate) {
+    byte[] bytes = rename(TEMPLATE, TEMPLATE_NAME, TEMPLATE_NAME + "$Compiled" + KERNEL_IDS.incrementAndGet());
+    pendingPredicate = predicate;
+    try {
+      Class<?> kernelClass = MethodHandles.lookup().defineClass(bytes);
+      return (Kernel) kernelClass.getDeclaredConstructor().newInstance();
+    } catch (ReflectiveOperationException e) {
+      throw new IllegalStateException(e);
+    } finally {
+      pendingPredicate = null;
+    }
+  }
+
+  private static byte[] rename(byte[] template, String from, String to) {
+    byte[] source = utf8Entry(from);
+    byte[] target = utf8Entry(to);
+    byte[] result = new byte[template.length + target.length - source.length];
+    int position = indexOf(template, source);
+    if (position < 0 || indexOf(template, source, position + 1) >= 0) {
+      throw new IllegalStateException("expected exactly one constant for " + from);
+    }
+    System.arraycopy(template, 0, result, 0, position);
+    System.arraycopy(target, 0, result, position, target.length);
+    System.arraycopy(template, position + source.length, result, position + target.length,
+        template.length - position - source.length);
+    return result;
+  }
+
+  private static byte[] utf8Entry(String value) {
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    byte[] entry = new byte[bytes.length + 3];
+    entry[0] = 1;
+    entry[1] = (byte) (bytes.length >>> 8);
+    entry[2] = (byte) bytes.length;
+    System.arraycopy(bytes, 0, entry, 3, bytes.length);
+    return entry;
+  }
+
+  private static int indexOf(byte[] haystack, byte[] needle) {
+    return indexOf(haystack, needle, 0);
+  }
+
+  private static int indexOf(byte[] haystack, byte[] needle, int from) {
+    outer:
+    for (int i = from; i <= haystack.length - needle.length; i++) {
+      for (int j = 0; j < needle.length; j++) {
+        if (haystack[i + j] != needle[j]) {
+          continue outer;
+        }
+      }
+      return i;
+    }
+    return -1;
+  }
+
+  private static byte[] loadTemplate() {
+    try (InputStream in = FilterCompiler.class.getResourceAsStream("FilterKernel.class")) {
+      return in.readAllBytes();
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+}
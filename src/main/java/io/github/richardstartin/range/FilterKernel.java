@@ -0,0 +1,41 @@
+package io.github.richardstartin.range;
+
+import java.lang.invoke.MethodHandle;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.RoaringBitmapWriter;
+
+final class FilterKernel implements FilterCompiler.Kernel {
+
+  private static final MethodHandle PREDICATE = FilterCompiler.takePredicate();
+
+  FilterKernel() {
+  }
+
+  @Override
+  public long count(long[][] columns, long[] bounds, int from, int to) {
+    try {
+      long count = 0;
+      for (int i = from; i < to; i++) {
+        count += (int) PREDICATE.invokeExact(columns, bounds, i);
+      }
+      return count;
+    } catch (Throwable t) {
+      throw new IllegalStateException(t);
+    }
+  }
+
+  @Override
+  public RoaringBitmap select(long[][] columns, long[] bounds, int from, int to) {
+    try {
+      RoaringBitmapWriter<RoaringBitmap> writer = RoaringBitmapWriter.writer().get();
+      for (int i = from; i < to; i++) {
+        if ((int) PREDICATE.invokeExact(columns, bounds, i) != 0) {
+          writer.add(i);
+        }
+      }
+      return writer.get();
+    } catch (Throwable t) {
+      throw new IllegalStateException(t);
+    }
+  }
+}
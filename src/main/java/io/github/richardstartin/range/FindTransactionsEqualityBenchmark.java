@@ -32,4 +32,27 @@ public class FindTransactionsEqualityBenchmark {
     RoaringBitmap matchesQuantity = state.quantityIndex.eq(qty);
     matchesQuantity.forEach((IntConsumer) i -> bh.consume(state.transactions.get(i)));
   }
+
+  @Benchmark
+  public void hash(EqualityIndexedTransactions state, Blackhole bh) {
+    int qty = state.minQuantityThreshold;
+    RoaringBitmap matchesQuantity = state.quantityEqualityIndex.eq(qty);
+    matchesQuantity.forEach((IntConsumer) i -> bh.consume(state.transactions.get(i)));
+  }
+
+  @Benchmark
+  public void inList(Transactions state, Blackhole bh) {
+    int qty = state.minQuantityThreshold - state.minQuantity;
+    RoaringBitmap matchesQuantity = state.quantityIndex.eq(qty);
+    matchesQuantity.or(state.quantityIndex.eq(qty + 1));
+    matchesQuantity.or(state.quantityIndex.eq(qty + 2));
+    matchesQuantity.forEach((IntConsumer) i -> bh.consume(state.transactions.get(i)));
+  }
+
+  @Benchmark
+  public void hashInList(EqualityIndexedTransactions state, Blackhole bh) {
+    int qty = state.minQuantityThreshold;
+    RoaringBitmap matchesQuantity = state.quantityEqualityIndex.in(qty, qty + 1, qty + 2);
+    matchesQuantity.forEach((IntConsumer) i -> bh.consume(state.transactions.get(i)));
+  }
 }
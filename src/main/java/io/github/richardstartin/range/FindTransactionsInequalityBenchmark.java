@@ -25,4 +25,13 @@ public class FindTransactionsInequalityBenchmark {
     RoaringBitmap mismatchesPrice = state.priceIndex.neq(price, matchesQuantity);
     mismatchesPrice.forEach((IntConsumer) i -> bh.consume(state.transactions.get(i)));
   }
+
+  @Benchmark
+  public void hash(EqualityIndexedTransactions state, Blackhole bh) {
+    int qty = state.minQuantityThreshold;
+    long price = state.maxPriceThreshold;
+    RoaringBitmap matchesQuantity = state.quantityEqualityIndex.eq(qty);
+    RoaringBitmap mismatchesPrice = state.priceEqualityIndex.neq(price, matchesQuantity);
+    mismatchesPrice.forEach((IntConsumer) i -> bh.consume(state.transactions.get(i)));
+  }
 }
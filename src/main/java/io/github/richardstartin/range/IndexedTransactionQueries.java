@@ -0,0 +1,57 @@
+package io.github.richardstartin.range;
+
+import org.roaringbitmap.RangeBitmap;
+import org.roaringbitmap.RoaringBitmap;
+
+public class IndexedTransactionQueries implements TransactionQueries {
+
+  private final RangeBitmap timestampIndex;
+  private final RangeBitmap quantityIndex;
+  private final RangeBitmap priceIndex;
+  private final long minTime;
+  private final long maxTime;
+  private final long minQuantity;
+  private final long maxQuantity;
+  private final long minPrice;
+
+  public IndexedTransactionQueries(Transactions transactions) {
+    this.timestampIndex = transactions.timestampIndex;
+    this.quantityIndex = transactions.quantityIndex;
+    this.priceIndex = transactions.priceIndex;
+    this.minTime = transactions.minTime;
+    this.minQuantity = transactions.minQuantity;
+    this.minPrice = transactions.minPrice;
+    long maxTime = Long.MIN_VALUE;
+    long maxQuantity = Long.MIN_VALUE;
+    for (Transaction transaction : transactions.transactions) {
+      maxTime = Math.max(maxTime, transaction.getTimestamp());
+      maxQuantity = Math.max(maxQuantity, transaction.getQuantity());
+    }
+    this.maxTime = maxTime;
+    this.maxQuantity = maxQuantity;
+  }
+
+  @Override
+  public long count(long begin, long end, long minQuantity, long maxPrice) {
+    RoaringBitmap context = matchesQuantity(begin, end, minQuantity, maxPrice);
+    return null == context ? 0 : priceIndex.lteCardinality(maxPrice - minPrice, context);
+  }
+
+  @Override
+  public RoaringBitmap rows(long begin, long end, long minQuantity, long maxPrice) {
+    RoaringBitmap context = matchesQuantity(begin, end, minQuantity, maxPrice);
+    return null == context ? new RoaringBitmap() : priceIndex.lte(maxPrice - minPrice, context);
+  }
+
+  private RoaringBitmap matchesQuantity(long begin, long end, long minQuantity, long maxPrice) {
+    if (end < minTime || begin > maxTime || begin > end || minQuantity > maxQuantity || maxPrice < minPrice) {
+      return null;
+    }
+    long first = Math.max(begin, minTime) - minTime;
+    long last = Math.min(end, maxTime) - minTime;
+    RoaringBitmap inTimeRange = timestampIndex.between(first, last);
+    return minQuantity <= this.minQuantity
+        ? inTimeRange
+        : quantityIndex.gte(minQuantity - this.minQuantity, inTimeRange);
+  }
+}
@@ -0,0 +1,127 @@
+package io.github.richardstartin.range;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.roaringbitmap.RoaringBitmap;
+
+public class InstrumentationOverheadBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class InstrumentedRangeBitmapState
+      extends RangeEvaluationBenchmark.BaseState<InstrumentedRangeEvaluator> {
+
+    @Param({"false", "true"})
+    boolean trackAllocations;
+
+    @Param({"false", "true"})
+    boolean countContainers;
+
+    @Override
+    protected InstrumentedRangeEvaluator create() {
+      return new InstrumentedRangeEvaluator(new RangeBitmapEvaluator(values), new QueryMetrics(trackAllocations, countContainers));
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class InstrumentedInvertedIndexState
+      extends RangeEvaluationBenchmark.BaseState<InstrumentedRangeEvaluator> {
+
+    @Param({"false", "true"})
+    boolean trackAllocations;
+
+    @Param({"false", "true"})
+    boolean countContainers;
+
+    @Override
+    protected InstrumentedRangeEvaluator create() {
+      return new InstrumentedRangeEvaluator(new InvertedIndexEvaluator(values, sortedValues),
+          new QueryMetrics(trackAllocations, countContainers));
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class InstrumentedTransactions extends Transactions {
+
+    @Param({"false", "true"})
+    boolean trackAllocations;
+
+    @Param({"false", "true"})
+    boolean countContainers;
+
+    TransactionQueries queries;
+    InstrumentedTransactionQueries instrumentedQueries;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      super.setup();
+      queries = new IndexedTransactionQueries(this);
+      instrumentedQueries = new InstrumentedTransactionQueries(queries, new QueryMetrics(trackAllocations, countContainers));
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class MetricsState {
+
+    @Param({"false", "true"})
+    boolean countContainers;
+
+    QueryMetrics metrics;
+    RoaringBitmap result;
+    long latency = 123_456;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      metrics = new QueryMetrics(false, countContainers);
+      result = RoaringBitmap.bitmapOfRange(0, 1 << 20);
+    }
+  }
+
+  @Benchmark
+  public void rangeBitmap(RangeEvaluationBenchmark.RangeBitmapState state, Blackhole bh) {
+    bh.consume(state.evaluator.between(state.min - state.minValue, state.max - state.minValue));
+  }
+
+  @Benchmark
+  public void instrumentedRangeBitmap(InstrumentedRangeBitmapState state, Blackhole bh) {
+    bh.consume(state.evaluator.between(state.min - state.minValue, state.max - state.minValue));
+  }
+
+  @Benchmark
+  public void invertedIndex(RangeEvaluationBenchmark.InvertedIndexState state, Blackhole bh) {
+    bh.consume(state.evaluator.between(state.min, state.max));
+  }
+
+  @Benchmark
+  public void instrumentedInvertedIndex(InstrumentedInvertedIndexState state, Blackhole bh) {
+    bh.consume(state.evaluator.between(state.min, state.max));
+  }
+
+  @Benchmark
+  public long index(InstrumentedTransactions state) {
+    return state.queries.count(state.minTimeThreshold, state.maxTimeThreshold,
+        state.minQuantityThreshold, state.maxPriceThreshold);
+  }
+
+  @Benchmark
+  public long instrumentedIndex(InstrumentedTransactions state) {
+    return state.instrumentedQueries.count(state.minTimeThreshold, state.maxTimeThreshold,
+        state.minQuantityThreshold, state.maxPriceThreshold);
+  }
+
+  @Benchmark
+  public void indexRows(InstrumentedTransactions state, Blackhole bh) {
+    bh.consume(state.queries.rows(state.minTimeThreshold, state.maxTimeThreshold,
+        state.minQuantityThreshold, state.maxPriceThreshold));
+  }
+
+  @Benchmark
+  public void instrumentedIndexRows(InstrumentedTransactions state, Blackhole bh) {
+    bh.consume(state.instrumentedQueries.rows(state.minTimeThreshold, state.maxTimeThreshold,
+        state.minQuantityThreshold, state.maxPriceThreshold));
+  }
+
+  @Benchmark
+  public void record(MetricsState state) {
+    state.metrics.record(state.latency, state.result, 0, 0);
+  }
+}
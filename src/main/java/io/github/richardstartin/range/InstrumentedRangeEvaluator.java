@@ -0,0 +1,46 @@
+package io.github.richardstartin.range;
+
+import org.roaringbitmap.RoaringBitmap;
+
+public class InstrumentedRangeEvaluator implements RangeEvaluator {
+
+  private final RangeEvaluator delegate;
+  private final InvertedIndexEvaluator invertedIndex;
+  private final QueryMetrics metrics;
+
+  public InstrumentedRangeEvaluator(RangeEvaluator delegate, QueryMetrics metrics) {
+    this.delegate = delegate;
+    this.invertedIndex = delegate instanceof InvertedIndexEvaluator ? (InvertedIndexEvaluator) delegate : null;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public RoaringBitmap between(long min, long max) {
+    long allocated = metrics.allocatedBytes();
+    long start = System.nanoTime();
+    RoaringBitmap result = delegate.between(min, max);
+    long latency = System.nanoTime() - start;
+    int bitmaps = null == invertedIndex ? 0 : invertedIndex.bitmapsBetween(min, max);
+    metrics.record(latency, result, bitmaps, metrics.allocatedBytes() - allocated);
+    return result;
+  }
+
+  @Override
+  public Selection select(long min, long max) {
+    long allocated = metrics.allocatedBytes();
+    long start = System.nanoTime();
+    Selection result = delegate.select(min, max);
+    long latency = System.nanoTime() - start;
+    metrics.record(latency, result.cardinality(), metrics.allocatedBytes() - allocated);
+    return result;
+  }
+
+  @Override
+  public int serializedSize() {
+    return delegate.serializedSize();
+  }
+
+  public QueryMetrics metrics() {
+    return metrics;
+  }
+}
@@ -0,0 +1,38 @@
+package io.github.richardstartin.range;
+
+import org.roaringbitmap.RoaringBitmap;
+
+public class InstrumentedTransactionQueries implements TransactionQueries {
+
+  private final TransactionQueries delegate;
+  private final QueryMetrics metrics;
+
+  public InstrumentedTransactionQueries(TransactionQueries delegate, QueryMetrics metrics) {
+    this.delegate = delegate;
+    this.metrics = metrics;
+  }
+
+  @Override
+  public long count(long begin, long end, long minQuantity, long maxPrice) {
+    long allocated = metrics.allocatedBytes();
+    long start = System.nanoTime();
+    long count = delegate.count(begin, end, minQuantity, maxPrice);
+    long latency = System.nanoTime() - start;
+    metrics.record(latency, count, metrics.allocatedBytes() - allocated);
+    return count;
+  }
+
+  @Override
+  public RoaringBitmap rows(long begin, long end, long minQuantity, long maxPrice) {
+    long allocated = metrics.allocatedBytes();
+    long start = System.nanoTime();
+    RoaringBitmap result = delegate.rows(begin, end, minQuantity, maxPrice);
+    long latency = System.nanoTime() - start;
+    metrics.record(latency, result, 0, metrics.allocatedBytes() - allocated);
+    return result;
+  }
+
+  public QueryMetrics metrics() {
+    return metrics;
+  }
+}
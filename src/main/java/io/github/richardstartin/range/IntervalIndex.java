@@ -0,0 +1,110 @@
+package io.github.richardstartin.range;
+
+import java.util.Comparator;
+import java.util.stream.IntStream;
+import org.roaringbitmap.RoaringBitmap;
+
+public class IntervalIndex {
+
+  private final long[] startTimes;
+  private final int[] startRows;
+  private final long[] endTimes;
+  private final int[] endRows;
+  private final long[] checkpointTimes;
+  private final RoaringBitmap[] checkpoints;
+
+  public IntervalIndex(long[] starts, long[] ends, int checkpointInterval) {
+    this.startRows = sortedRows(starts);
+    this.endRows = sortedRows(ends);
+    this.startTimes = new long[starts.length];
+    this.endTimes = new long[ends.length];
+    for (int i = 0; i < starts.length; i++) {
+      startTimes[i] = starts[startRows[i]];
+      endTimes[i] = ends[endRows[i]];
+    }
+    int numCheckpoints = (starts.length + checkpointInterval - 1) / checkpointInterval;
+    this.checkpointTimes = new long[numCheckpoints];
+    this.checkpoints = new RoaringBitmap[numCheckpoints];
+    RoaringBitmap live = new RoaringBitmap();
+    int started = 0;
+    int ended = 0;
+    for (int i = 0; i < numCheckpoints; i++) {
+      long time = startTimes[i * checkpointInterval];
+      for (; started < startTimes.length && startTimes[started] <= time; started++) {
+        live.add(startRows[started]);
+      }
+      for (; ended < endTimes.length && endTimes[ended] < time; ended++) {
+        live.remove(endRows[ended]);
+      }
+      RoaringBitmap checkpoint = live.clone();
+      checkpoint.runOptimize();
+      checkpointTimes[i] = time;
+      checkpoints[i] = checkpoint;
+    }
+  }
+
+  public RoaringBitmap stab(long time) {
+    int checkpoint = upperBound(checkpointTimes, time) - 1;
+    if (checkpoint < 0) {
+      return new RoaringBitmap();
+    }
+    long checkpointTime = checkpointTimes[checkpoint];
+    RoaringBitmap result = checkpoints[checkpoint].clone();
+    int firstStart = upperBound(startTimes, checkpointTime);
+    int lastStart = upperBound(startTimes, time);
+    result.addN(startRows, firstStart, lastStart - firstStart);
+    int firstEnd = lowerBound(endTimes, checkpointTime);
+    int lastEnd = lowerBound(endTimes, time);
+    if (firstEnd < lastEnd) {
+      RoaringBitmap ended = new RoaringBitmap();
+      ended.addN(endRows, firstEnd, lastEnd - firstEnd);
+      result.andNot(ended);
+    }
+    return result;
+  }
+
+  public RoaringBitmap overlap(long begin, long end) {
+    if (end < begin) {
+      return new RoaringBitmap();
+    }
+    RoaringBitmap result = stab(begin);
+    int firstStart = upperBound(startTimes, begin);
+    int lastStart = upperBound(startTimes, end);
+    result.addN(startRows, firstStart, lastStart - firstStart);
+    return result;
+  }
+
+  public int serializedSize() {
+    int size = startTimes.length * (2 * Long.BYTES + 2 * Integer.BYTES) + checkpointTimes.length * Long.BYTES;
+    for (RoaringBitmap checkpoint : checkpoints) {
+      size += checkpoint.serializedSizeInBytes();
+    }
+    return size;
+  }
+
+  private static int[] sortedRows(long[] times) {
+    return IntStream.range(0, times.length)
+        .boxed()
+        .sorted(Comparator.comparingLong(row -> times[row]))
+        .mapToInt(Integer::intValue)
+        .toArray();
+  }
+
+  private static int lowerBound(long[] values, long key) {
+    int low = 0;
+    int high = values.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (values[mid] < key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  private static int upperBound(long[] values, long key) {
+    return key == Long.MAX_VALUE ? values.length : lowerBound(values, key + 1);
+  }
+}
@@ -0,0 +1,94 @@
+package io.github.richardstartin.range;
+
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.roaringbitmap.RangeBitmap;
+import org.roaringbitmap.RoaringBitmap;
+
+
+public class IntervalIndexBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class OrderLifetimes {
+
+    @Param("1000000")
+    int size;
+
+    @Param({"EXP(0.01)", "EXP(0.0001)"})
+    String duration;
+
+    @Param({"1024", "16384"})
+    int checkpointInterval;
+
+    long[] placed;
+    long[] closed;
+    long minTime;
+
+    RangeBitmap placedIndex;
+    RangeBitmap closedIndex;
+    IntervalIndex intervalIndex;
+
+    long time;
+    long windowBegin;
+    long windowEnd;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      placed = new long[size];
+      closed = new long[size];
+      SplittableRandom random = new SplittableRandom(42);
+      LongSupplier durations = Distribution.parse(42, duration);
+      long time = 1_646_006_400L;
+      long maxTime = Long.MIN_VALUE;
+      for (int i = 0; i < size; i++) {
+        placed[i] = time;
+        closed[i] = time + durations.getAsLong();
+        maxTime = Math.max(maxTime, closed[i]);
+        time += (long) -(Math.log(random.nextDouble()) / 0.95);
+      }
+      minTime = placed[0];
+      var placedAppender = RangeBitmap.appender(maxTime - minTime);
+      var closedAppender = RangeBitmap.appender(maxTime - minTime);
+      for (int i = 0; i < size; i++) {
+        placedAppender.add(placed[i] - minTime);
+        closedAppender.add(closed[i] - minTime);
+      }
+      placedIndex = placedAppender.build();
+      closedIndex = closedAppender.build();
+      intervalIndex = new IntervalIndex(placed, closed, checkpointInterval);
+      this.time = placed[size / 2];
+      windowBegin = placed[size / 2];
+      windowEnd = placed[size / 2 + size / 100];
+    }
+  }
+
+  @Benchmark
+  public void stabRangeBitmaps(OrderLifetimes state, Blackhole bh) {
+    long time = state.time - state.minTime;
+    RoaringBitmap placedBefore = state.placedIndex.lte(time);
+    bh.consume(state.closedIndex.gte(time, placedBefore));
+  }
+
+  @Benchmark
+  public void stabIntervalIndex(OrderLifetimes state, Blackhole bh) {
+    bh.consume(state.intervalIndex.stab(state.time));
+  }
+
+  @Benchmark
+  public void overlapRangeBitmaps(OrderLifetimes state, Blackhole bh) {
+    RoaringBitmap placedBefore = state.placedIndex.lte(state.windowEnd - state.minTime);
+    bh.consume(state.closedIndex.gte(state.windowBegin - state.minTime, placedBefore));
+  }
+
+  @Benchmark
+  public void overlapIntervalIndex(OrderLifetimes state, Blackhole bh) {
+    bh.consume(state.intervalIndex.overlap(state.windowBegin, state.windowEnd));
+  }
+}
@@ -9,6 +9,7 @@ public class InvertedIndexEvaluator implements RangeEvaluator {
 
   private final long[] uniqueValues;
   private final RoaringBitmap[] bitmaps;
+  private final int[] cumulativeCardinalities;
   private final int serializedSize;
 
   public InvertedIndexEvaluator(long[] values, long[] sortedValues) {
@@ -37,6 +38,10 @@ public class InvertedIndexEvaluator implements RangeEvaluator {
     RoaringBitmap[] bitmaps = new RoaringBitmap[writers.length];
     Arrays.setAll(bitmaps, i -> writers[i].get());
     this.bitmaps = bitmaps;
+    this.cumulativeCardinalities = new int[bitmaps.length + 1];
+    for (int i = 0; i < bitmaps.length; i++) {
+      cumulativeCardinalities[i + 1] = cumulativeCardinalities[i] + bitmaps[i].getCardinality();
+    }
     int ss = uniqueValues.length * 8 + bitmaps.length * 4;
     for (RoaringBitmap bitmap : bitmaps) {
       ss += bitmap.serializedSizeInBytes();
@@ -46,17 +51,59 @@ public class InvertedIndexEvaluator implements RangeEvaluator {
 
   @Override
   public RoaringBitmap between(long min, long max) {
-    int start = Arrays.binarySearch(uniqueValues, min);
-    int begin = start >= 0 ? start : -start - 1;
-    int end = Arrays.binarySearch(uniqueValues, begin, uniqueValues.length, max + 1);
-    int finish = end >= 0 ? end : -end - 1;
+    int begin = first(min);
+    int finish = end(begin, max);
+    if (begin >= finish) {
+      return new RoaringBitmap();
+    }
     RoaringBitmap bitmap = bitmaps[begin].clone();
-    for (int i = begin + 1; i <= finish & i < bitmaps.length; i++) {
+    for (int i = begin + 1; i < finish; i++) {
       bitmap.or(bitmaps[i]);
     }
     return bitmap;
   }
 
+  @Override
+  public Selection select(long min, long max) {
+    int begin = first(min);
+    int finish = end(begin, max);
+    int rows = cumulativeCardinalities[bitmaps.length];
+    int selected = cumulativeCardinalities[finish] - cumulativeCardinalities[begin];
+    if (selected * 2 > rows) {
+      RoaringBitmap excluded = new RoaringBitmap();
+      for (int i = 0; i < begin; i++) {
+        excluded.or(bitmaps[i]);
+      }
+      for (int i = finish; i < bitmaps.length; i++) {
+        excluded.or(bitmaps[i]);
+      }
+      return Selection.complementOf(excluded, rows);
+    }
+    RoaringBitmap bitmap = new RoaringBitmap();
+    for (int i = begin; i < finish; i++) {
+      bitmap.or(bitmaps[i]);
+    }
+    return Selection.of(bitmap);
+  }
+
+  public int bitmapsBetween(long min, long max) {
+    int begin = first(min);
+    return Math.max(0, end(begin, max) - begin);
+  }
+
+  private int first(long min) {
+    int start = Arrays.binarySearch(uniqueValues, min);
+    return start >= 0 ? start : -start - 1;
+  }
+
+  private int end(int begin, long max) {
+    if (max == Long.MAX_VALUE) {
+      return uniqueValues.length;
+    }
+    int end = Arrays.binarySearch(uniqueValues, begin, uniqueValues.length, max + 1);
+    return end >= 0 ? end : -end - 1;
+  }
+
   @Override
   public int serializedSize() {
     return serializedSize;
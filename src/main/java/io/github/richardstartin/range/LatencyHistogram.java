@@ -0,0 +1,123 @@
+package io.github.richardstartin.range;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+public final class LatencyHistogram {
+
+  private static final int SUB_BUCKET_BITS = 5;
+  private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+  private static final int BUCKETS = (64 - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+  private final AtomicLongArray[] stripes;
+  private final int mask;
+
+  public LatencyHistogram() {
+    this(Runtime.getRuntime().availableProcessors());
+  }
+
+  public LatencyHistogram(int concurrency) {
+    int stripes = Integer.highestOneBit(Math.max(1, concurrency - 1)) << 1;
+    this.stripes = new AtomicLongArray[stripes];
+    for (int i = 0; i < stripes; i++) {
+      this.stripes[i] = new AtomicLongArray(BUCKETS);
+    }
+    this.mask = stripes - 1;
+  }
+
+  public void record(long nanos) {
+    stripe().getAndIncrement(bucket(Math.max(0, nanos)));
+  }
+
+  public Snapshot snapshot() {
+    long[] counts = new long[BUCKETS];
+    for (AtomicLongArray stripe : stripes) {
+      for (int i = 0; i < BUCKETS; i++) {
+        counts[i] += stripe.get(i);
+      }
+    }
+    return new Snapshot(counts);
+  }
+
+  private AtomicLongArray stripe() {
+    long id = Thread.currentThread().getId();
+    return stripes[(int) ((id * 0x9E3779B97F4A7C15L) >>> 32) & mask];
+  }
+
+  static int bucket(long value) {
+    if (value < SUB_BUCKETS) {
+      return (int) value;
+    }
+    int exponent = 63 - Long.numberOfLeadingZeros(value);
+    int subBucket = (int) (value >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+    return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + subBucket;
+  }
+
+  static long lowerBound(int bucket) {
+    if (bucket < SUB_BUCKETS) {
+      return bucket;
+    }
+    int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+    long subBucket = bucket % SUB_BUCKETS;
+    return (SUB_BUCKETS + subBucket) << (exponent - SUB_BUCKET_BITS);
+  }
+
+  static long upperBound(int bucket) {
+    return bucket + 1 == BUCKETS ? Long.MAX_VALUE : lowerBound(bucket + 1) - 1;
+  }
+
+  public static final class Snapshot {
+
+    private final long[] counts;
+    private final long count;
+
+    private Snapshot(long[] counts) {
+      this.counts = counts;
+      long count = 0;
+      for (long c : counts) {
+        count += c;
+      }
+      this.count = count;
+    }
+
+    public long count() {
+      return count;
+    }
+
+    public long valueAtPercentile(double percentile) {
+      if (count == 0) {
+        return 0;
+      }
+      long rank = Math.max(1, (long) Math.ceil(percentile / 100 * count));
+      long seen = 0;
+      for (int i = 0; i < counts.length; i++) {
+        seen += counts[i];
+        if (seen >= rank) {
+          return upperBound(i);
+        }
+      }
+      return max();
+    }
+
+    public long max() {
+      for (int i = counts.length - 1; i >= 0; i--) {
+        if (counts[i] != 0) {
+          return upperBound(i);
+        }
+      }
+      return 0;
+    }
+
+    public double mean() {
+      if (count == 0) {
+        return 0;
+      }
+      double sum = 0;
+      for (int i = 0; i < counts.length; i++) {
+        if (counts[i] != 0) {
+          sum += counts[i] * ((lowerBound(i) + (double) upperBound(i)) / 2);
+        }
+      }
+      return sum / count;
+    }
+  }
+}
@@ -0,0 +1,58 @@
+package io.github.richardstartin.range;
+
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import org.openjdk.jmh.annotations.*;
+
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class MemoryCounters {
+
+  private long gcCount;
+  private long gcTime;
+
+  public long gcCount() {
+    return totalGcCount() - gcCount;
+  }
+
+  public long gcPauseMillis() {
+    return totalGcTime() - gcTime;
+  }
+
+  public long heapUsedBytes() {
+    return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+  }
+
+  public long directUsedBytes() {
+    long used = 0;
+    for (BufferPoolMXBean pool : ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class)) {
+      if ("direct".equals(pool.getName())) {
+        used += pool.getMemoryUsed();
+      }
+    }
+    return used;
+  }
+
+  @Setup(Level.Iteration)
+  public void reset() {
+    gcCount = totalGcCount();
+    gcTime = totalGcTime();
+  }
+
+  private static long totalGcCount() {
+    long count = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      count += Math.max(0, gc.getCollectionCount());
+    }
+    return count;
+  }
+
+  private static long totalGcTime() {
+    long time = 0;
+    for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+      time += Math.max(0, gc.getCollectionTime());
+    }
+    return time;
+  }
+}
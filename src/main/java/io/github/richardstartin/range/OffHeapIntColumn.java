@@ -0,0 +1,38 @@
+package io.github.richardstartin.range;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+
+public final class OffHeapIntColumn {
+
+  private static final int CHUNK_SHIFT = 28;
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private final IntBuffer[] chunks;
+  private final int size;
+
+  public OffHeapIntColumn(int size) {
+    this.size = size;
+    this.chunks = new IntBuffer[(int) (((long) size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+    for (int i = 0; i < chunks.length; i++) {
+      int chunkSize = Math.min(CHUNK_SIZE, size - (i << CHUNK_SHIFT));
+      chunks[i] = ByteBuffer.allocateDirect(chunkSize * Integer.BYTES)
+          .order(ByteOrder.nativeOrder())
+          .asIntBuffer();
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public int get(int index) {
+    return chunks[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK);
+  }
+
+  public void set(int index, int value) {
+    chunks[index >>> CHUNK_SHIFT].put(index & CHUNK_MASK, value);
+  }
+}
@@ -0,0 +1,52 @@
+package io.github.richardstartin.range;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+
+public final class OffHeapLongColumn {
+
+  private static final int CHUNK_SHIFT = 27;
+  private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+  private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+  private final LongBuffer[] chunks;
+  private final int size;
+
+  public OffHeapLongColumn(int size) {
+    this.size = size;
+    this.chunks = new LongBuffer[(int) (((long) size + CHUNK_SIZE - 1) >>> CHUNK_SHIFT)];
+    for (int i = 0; i < chunks.length; i++) {
+      int chunkSize = Math.min(CHUNK_SIZE, size - (i << CHUNK_SHIFT));
+      chunks[i] = ByteBuffer.allocateDirect(chunkSize * Long.BYTES)
+          .order(ByteOrder.nativeOrder())
+          .asLongBuffer();
+    }
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public long get(int index) {
+    return chunks[index >>> CHUNK_SHIFT].get(index & CHUNK_MASK);
+  }
+
+  public void set(int index, long value) {
+    chunks[index >>> CHUNK_SHIFT].put(index & CHUNK_MASK, value);
+  }
+
+  public int lowerBound(int from, int to, long key) {
+    int low = from;
+    int high = to;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (get(mid) < key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}
@@ -0,0 +1,105 @@
+package io.github.richardstartin.range;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.SplittableRandom;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.roaringbitmap.RangeBitmap;
+
+
+@State(Scope.Benchmark)
+public class OffHeapTransactions {
+  @Param({"10000000", "100000000", "500000000"})
+  int size;
+
+  @Param("100")
+  long minPrice;
+
+  @Param("1")
+  int minQuantity;
+
+  long minTime;
+
+  private final SplittableRandom random = new SplittableRandom(42);
+
+  OffHeapIntColumn quantities;
+  OffHeapLongColumn prices;
+  OffHeapLongColumn timestamps;
+
+  RangeBitmap timestampIndex;
+  RangeBitmap quantityIndex;
+  RangeBitmap priceIndex;
+
+  long minTimeThreshold;
+  long maxTimeThreshold;
+
+  int minQuantityThreshold;
+  long maxPriceThreshold;
+
+  @Setup(Level.Trial)
+  public void setup() {
+    quantities = new OffHeapIntColumn(size);
+    prices = new OffHeapLongColumn(size);
+    timestamps = new OffHeapLongColumn(size);
+    long time = LocalDate.of(2022, 3, 12).atStartOfDay().toEpochSecond(ZoneOffset.UTC);
+    minTime = time;
+    for (int i = 0; i < size; i++) {
+      quantities.set(i, random.nextInt(minQuantity, 10000));
+      prices.set(i, random.nextLong(minQuantity, 1000000));
+      timestamps.set(i, time);
+      time += nextTransactionTime();
+    }
+
+    minTimeThreshold = timestamps.get((int) ((size * 5L) / 10));
+    maxTimeThreshold = timestamps.get((int) ((size * 6L) / 10));
+    minQuantityThreshold = (minQuantity + quantities.get(size / 2)) / 2;
+    maxPriceThreshold = (minPrice + quantities.get(size / 2)) / 2;
+
+    index();
+  }
+
+  private void index() {
+    long minTimestamp = Long.MAX_VALUE;
+    long maxTimestamp = Long.MIN_VALUE;
+    long minPrice = Long.MAX_VALUE;
+    long maxPrice = Long.MIN_VALUE;
+    int minQty = Integer.MAX_VALUE;
+    int maxQty = Integer.MIN_VALUE;
+    for (int i = 0; i < size; i++) {
+      minTimestamp = Math.min(minTimestamp, timestamps.get(i));
+      maxTimestamp = Math.max(maxTimestamp, timestamps.get(i));
+      minPrice = Math.min(minPrice, prices.get(i));
+      maxPrice = Math.max(maxPrice, prices.get(i));
+      minQty = Math.min(minQty, quantities.get(i));
+      maxQty = Math.max(maxQty, quantities.get(i));
+    }
+    var timestampAppender = RangeBitmap.appender(maxTimestamp - minTimestamp);
+    var priceAppender = RangeBitmap.appender(maxPrice - minPrice);
+    var qtyAppender = RangeBitmap.appender(maxQty - minQty);
+    for (int i = 0; i < size; i++) {
+      timestampAppender.add(timestamps.get(i) - minTimestamp);
+      priceAppender.add(prices.get(i) - minPrice);
+      qtyAppender.add(quantities.get(i) - minQty);
+    }
+    timestampIndex = timestampAppender.build(OffHeapTransactions::allocateDirect);
+    priceIndex = priceAppender.build(OffHeapTransactions::allocateDirect);
+    quantityIndex = qtyAppender.build(OffHeapTransactions::allocateDirect);
+    this.minTime = minTimestamp;
+    this.minQuantity = minQty;
+    this.minPrice = minPrice;
+  }
+
+  private static ByteBuffer allocateDirect(int capacity) {
+    return ByteBuffer.allocateDirect(capacity).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  private long nextTransactionTime() {
+    return (long) -(Math.log(random.nextDouble()) / 0.95);
+  }
+}
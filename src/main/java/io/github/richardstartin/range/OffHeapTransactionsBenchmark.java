@@ -0,0 +1,149 @@
+package io.github.richardstartin.range;
+
+import java.util.Collections;
+import java.util.Comparator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.roaringbitmap.IntConsumer;
+import org.roaringbitmap.RoaringBitmap;
+
+
+public class OffHeapTransactionsBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class HeapTransactions {
+
+    @Param({"10000000", "100000000", "500000000"})
+    int size;
+
+    @Param("100")
+    long minPrice;
+
+    @Param("1")
+    int minQuantity;
+
+    Transactions transactions;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      transactions = new Transactions();
+      transactions.size = size;
+      transactions.minPrice = minPrice;
+      transactions.minQuantity = minQuantity;
+      transactions.setup();
+      System.gc();
+    }
+  }
+
+  @Benchmark
+  public long heapIndex(HeapTransactions state, MemoryCounters counters) {
+    Transactions heap = state.transactions;
+    int qty = heap.minQuantityThreshold - heap.minQuantity;
+    long price = heap.maxPriceThreshold - heap.minPrice;
+    long begin = heap.minTimeThreshold - heap.minTime;
+    long end = heap.maxTimeThreshold - heap.minTime;
+    RoaringBitmap inTimeRange = heap.timestampIndex.between(begin, end);
+    RoaringBitmap matchesQuantity = heap.quantityIndex.gte(qty, inTimeRange);
+    return heap.priceIndex.lteCardinality(price, matchesQuantity);
+  }
+
+  @Benchmark
+  public long offHeapIndex(OffHeapTransactions state, MemoryCounters counters) {
+    int qty = state.minQuantityThreshold - state.minQuantity;
+    long price = state.maxPriceThreshold - state.minPrice;
+    long begin = state.minTimeThreshold - state.minTime;
+    long end = state.maxTimeThreshold - state.minTime;
+    RoaringBitmap inTimeRange = state.timestampIndex.between(begin, end);
+    RoaringBitmap matchesQuantity = state.quantityIndex.gte(qty, inTimeRange);
+    return state.priceIndex.lteCardinality(price, matchesQuantity);
+  }
+
+  @Benchmark
+  public long heapBinarySearchThenIndex(HeapTransactions state, MemoryCounters counters) {
+    Transactions heap = state.transactions;
+    int qty = heap.minQuantityThreshold - heap.minQuantity;
+    long price = heap.maxPriceThreshold - heap.minPrice;
+    long begin = heap.minTimeThreshold;
+    long end = heap.maxTimeThreshold;
+    int first = Collections.binarySearch(heap.transactions, new Transaction(0, 0, begin),
+        Comparator.comparingLong(Transaction::getTimestamp));
+    int last = Collections.binarySearch(heap.transactions, new Transaction(0, 0, end),
+        Comparator.comparingLong(Transaction::getTimestamp));
+    RoaringBitmap inTimeRange = RoaringBitmap.bitmapOfRange(first, last + 1);
+    RoaringBitmap matchesQuantity = heap.quantityIndex.gte(qty, inTimeRange);
+    return heap.priceIndex.lteCardinality(price, matchesQuantity);
+  }
+
+  @Benchmark
+  public long offHeapBinarySearchThenIndex(OffHeapTransactions state, MemoryCounters counters) {
+    int qty = state.minQuantityThreshold - state.minQuantity;
+    long price = state.maxPriceThreshold - state.minPrice;
+    int first = state.timestamps.lowerBound(0, state.size, state.minTimeThreshold);
+    int last = state.timestamps.lowerBound(first, state.size, state.maxTimeThreshold + 1) - 1;
+    RoaringBitmap inTimeRange = RoaringBitmap.bitmapOfRange(first, last + 1);
+    RoaringBitmap matchesQuantity = state.quantityIndex.gte(qty, inTimeRange);
+    return state.priceIndex.lteCardinality(price, matchesQuantity);
+  }
+
+  @Benchmark
+  public long heapBinarySearchBranchFreeScan(HeapTransactions state, MemoryCounters counters) {
+    Transactions heap = state.transactions;
+    int qty = heap.minQuantityThreshold;
+    long price = heap.maxPriceThreshold;
+    long begin = heap.minTimeThreshold;
+    long end = heap.maxTimeThreshold;
+    int first = Collections.binarySearch(heap.transactions, new Transaction(0, 0, begin),
+        Comparator.comparingLong(Transaction::getTimestamp));
+    int last = Collections.binarySearch(heap.transactions, new Transaction(0, 0, end),
+        Comparator.comparingLong(Transaction::getTimestamp));
+    long count = 0;
+    for (int i = first; i <= last; i++) {
+      Transaction transaction = heap.transactions.get(i);
+      count += (Math.min(1, Math.max(transaction.quantity - qty, 0)) + Math.min(1, Math.max(price - transaction.price, 0))) >>> 1;
+    }
+    return count;
+  }
+
+  @Benchmark
+  public long offHeapBinarySearchBranchFreeScan(OffHeapTransactions state, MemoryCounters counters) {
+    int qty = state.minQuantityThreshold;
+    long price = state.maxPriceThreshold;
+    int first = state.timestamps.lowerBound(0, state.size, state.minTimeThreshold);
+    int last = state.timestamps.lowerBound(first, state.size, state.maxTimeThreshold + 1) - 1;
+    long count = 0;
+    for (int i = first; i <= last; i++) {
+      count += (Math.min(1, Math.max(state.quantities.get(i) - qty, 0)) + Math.min(1, Math.max(price - state.prices.get(i), 0))) >>> 1;
+    }
+    return count;
+  }
+
+  @Benchmark
+  public void heapFind(HeapTransactions state, Blackhole bh, MemoryCounters counters) {
+    Transactions heap = state.transactions;
+    int qty = heap.minQuantityThreshold - heap.minQuantity;
+    long price = heap.maxPriceThreshold - heap.minPrice;
+    long begin = heap.minTimeThreshold - heap.minTime;
+    long end = heap.maxTimeThreshold - heap.minTime;
+    RoaringBitmap inTimeRange = heap.timestampIndex.between(begin, end);
+    RoaringBitmap matchesQuantity = heap.quantityIndex.gte(qty, inTimeRange);
+    RoaringBitmap matchesPrice = heap.priceIndex.lte(price, matchesQuantity);
+    matchesPrice.forEach((IntConsumer) i -> bh.consume(heap.transactions.get(i).price));
+  }
+
+  @Benchmark
+  public void offHeapFind(OffHeapTransactions state, Blackhole bh, MemoryCounters counters) {
+    int qty = state.minQuantityThreshold - state.minQuantity;
+    long price = state.maxPriceThreshold - state.minPrice;
+    long begin = state.minTimeThreshold - state.minTime;
+    long end = state.maxTimeThreshold - state.minTime;
+    RoaringBitmap inTimeRange = state.timestampIndex.between(begin, end);
+    RoaringBitmap matchesQuantity = state.quantityIndex.gte(qty, inTimeRange);
+    RoaringBitmap matchesPrice = state.priceIndex.lte(price, matchesQuantity);
+    matchesPrice.forEach((IntConsumer) i -> bh.consume(state.prices.get(i)));
+  }
+}
@@ -0,0 +1,220 @@
+package io.github.richardstartin.range;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import org.roaringbitmap.RangeBitmap;
+import org.roaringbitmap.RoaringBitmap;
+
+public abstract class OrderPreservingEncoding {
+
+  private final long base;
+  private final long maxCode;
+
+  OrderPreservingEncoding(long minSortable, long maxSortable) {
+    this.base = minSortable;
+    this.maxCode = maxSortable - minSortable;
+  }
+
+  public static long sortable(long value) {
+    return value ^ Long.MIN_VALUE;
+  }
+
+  public static long sortable(double value) {
+    long bits = Double.doubleToLongBits(value + 0.0);
+    return bits ^ ((bits >> 63) | Long.MIN_VALUE);
+  }
+
+  public static long[] sortable(long[] values) {
+    long[] sortable = new long[values.length];
+    for (int i = 0; i < values.length; i++) {
+      sortable[i] = sortable(values[i]);
+    }
+    return sortable;
+  }
+
+  public static long[] sortable(double[] values) {
+    long[] sortable = new long[values.length];
+    for (int i = 0; i < values.length; i++) {
+      sortable[i] = sortable(values[i]);
+    }
+    return sortable;
+  }
+
+  public long maxCode() {
+    return maxCode;
+  }
+
+  public int bitWidth() {
+    return 64 - Long.numberOfLeadingZeros(maxCode);
+  }
+
+  public RangeEvaluator index(long[] codes) {
+    var appender = RangeBitmap.appender(maxCode);
+    for (long code : codes) {
+      appender.add(code);
+    }
+    int serializedSize = appender.serializedSizeInBytes();
+    return new Index(appender.build(), serializedSize);
+  }
+
+  long code(long sortable) {
+    return sortable - base;
+  }
+
+  long[] codes(long[] sortable) {
+    for (int i = 0; i < sortable.length; i++) {
+      sortable[i] -= base;
+    }
+    return sortable;
+  }
+
+  RoaringBitmap betweenSortable(RangeEvaluator evaluator, long minSortable, long maxSortable) {
+    if (maxCode < 0 && !(evaluator instanceof Index)) {
+      throw new IllegalArgumentException("codes use all 64 bits and can only be queried through index()");
+    }
+    if (Long.compareUnsigned(maxSortable, base) < 0) {
+      return new RoaringBitmap();
+    }
+    long min = Long.compareUnsigned(minSortable, base) <= 0 ? 0 : minSortable - base;
+    long max = Long.compareUnsigned(maxSortable - base, maxCode) > 0 ? maxCode : maxSortable - base;
+    return Long.compareUnsigned(min, max) > 0 ? new RoaringBitmap() : evaluator.between(min, max);
+  }
+
+  private static long minSortable(long[] sortable) {
+    long min = -1L;
+    for (long value : sortable) {
+      if (Long.compareUnsigned(value, min) < 0) {
+        min = value;
+      }
+    }
+    return min;
+  }
+
+  private static long maxSortable(long[] sortable) {
+    long max = 0L;
+    for (long value : sortable) {
+      if (Long.compareUnsigned(value, max) > 0) {
+        max = value;
+      }
+    }
+    return max;
+  }
+
+  public static final class Doubles extends OrderPreservingEncoding {
+
+    private Doubles(long minSortable, long maxSortable) {
+      super(minSortable, maxSortable);
+    }
+
+    public static Doubles of(double[] values) {
+      long[] sortable = sortable(values);
+      return new Doubles(minSortable(sortable), maxSortable(sortable));
+    }
+
+    public long encode(double value) {
+      return code(sortable(value));
+    }
+
+    public long[] encode(double[] values) {
+      return codes(sortable(values));
+    }
+
+    public RoaringBitmap between(RangeEvaluator evaluator, double min, double max) {
+      return betweenSortable(evaluator, sortable(min), sortable(max));
+    }
+  }
+
+  public static final class Decimals extends OrderPreservingEncoding {
+
+    private final int scale;
+
+    private Decimals(long minSortable, long maxSortable, int scale) {
+      super(minSortable, maxSortable);
+      this.scale = scale;
+    }
+
+    public static Decimals of(long[] unscaledValues, int scale) {
+      long[] sortable = sortable(unscaledValues);
+      return new Decimals(minSortable(sortable), maxSortable(sortable), scale);
+    }
+
+    public static Decimals of(BigDecimal[] values, int scale) {
+      long[] unscaled = new long[values.length];
+      for (int i = 0; i < values.length; i++) {
+        unscaled[i] = values[i].setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact();
+      }
+      return of(unscaled, scale);
+    }
+
+    public int scale() {
+      return scale;
+    }
+
+    public long encode(BigDecimal value) {
+      return encodeUnscaled(value.setScale(scale, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+
+    public long encodeUnscaled(long unscaled) {
+      return code(sortable(unscaled));
+    }
+
+    public long[] encodeUnscaled(long[] unscaled) {
+      return codes(sortable(unscaled));
+    }
+
+    public RoaringBitmap between(RangeEvaluator evaluator, BigDecimal min, BigDecimal max) {
+      long lower = min.setScale(scale, RoundingMode.CEILING).unscaledValue().longValueExact();
+      long upper = max.setScale(scale, RoundingMode.FLOOR).unscaledValue().longValueExact();
+      return betweenSortable(evaluator, sortable(lower), sortable(upper));
+    }
+
+    public RoaringBitmap betweenUnscaled(RangeEvaluator evaluator, long min, long max) {
+      return betweenSortable(evaluator, sortable(min), sortable(max));
+    }
+  }
+
+  public static final class SignedLongs extends OrderPreservingEncoding {
+
+    private SignedLongs(long minSortable, long maxSortable) {
+      super(minSortable, maxSortable);
+    }
+
+    public static SignedLongs of(long[] values) {
+      long[] sortable = sortable(values);
+      return new SignedLongs(minSortable(sortable), maxSortable(sortable));
+    }
+
+    public long encode(long value) {
+      return code(sortable(value));
+    }
+
+    public long[] encode(long[] values) {
+      return codes(sortable(values));
+    }
+
+    public RoaringBitmap between(RangeEvaluator evaluator, long min, long max) {
+      return betweenSortable(evaluator, sortable(min), sortable(max));
+    }
+  }
+
+  private static final class Index implements RangeEvaluator {
+
+    private final RangeBitmap bitmap;
+    private final int serializedSize;
+
+    private Index(RangeBitmap bitmap, int serializedSize) {
+      this.bitmap = bitmap;
+      this.serializedSize = serializedSize;
+    }
+
+    @Override
+    public RoaringBitmap between(long min, long max) {
+      return bitmap.between(min, max);
+    }
+
+    @Override
+    public int serializedSize() {
+      return serializedSize;
+    }
+  }
+}
@@ -0,0 +1,128 @@
+package io.github.richardstartin.range;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.concurrent.atomic.LongAdder;
+import org.roaringbitmap.ContainerPointer;
+import org.roaringbitmap.RoaringBitmap;
+
+public final class QueryMetrics {
+
+  private final LatencyHistogram latency = new LatencyHistogram();
+  private final LongAdder cardinality = new LongAdder();
+  private final LongAdder containers = new LongAdder();
+  private final LongAdder bitmapsOred = new LongAdder();
+  private final LongAdder allocatedBytes = new LongAdder();
+  private final com.sun.management.ThreadMXBean threads;
+  private final boolean countContainers;
+
+  public QueryMetrics(boolean trackAllocations) {
+    this(trackAllocations, false);
+  }
+
+  public QueryMetrics(boolean trackAllocations, boolean countContainers) {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    this.threads = trackAllocations && threads instanceof com.sun.management.ThreadMXBean
+        ? (com.sun.management.ThreadMXBean) threads
+        : null;
+    this.countContainers = countContainers;
+  }
+
+  public long allocatedBytes() {
+    return null == threads ? 0 : threads.getThreadAllocatedBytes(Thread.currentThread().getId());
+  }
+
+  public void record(long latencyNanos, long resultCardinality) {
+    record(latencyNanos, resultCardinality, 0);
+  }
+
+  public void record(long latencyNanos, long resultCardinality, long allocated) {
+    latency.record(latencyNanos);
+    cardinality.add(resultCardinality);
+    if (allocated != 0) {
+      allocatedBytes.add(allocated);
+    }
+  }
+
+  public void record(long latencyNanos, RoaringBitmap result, int bitmaps, long allocated) {
+    latency.record(latencyNanos);
+    cardinality.add(result.getLongCardinality());
+    if (countContainers) {
+      containers.add(containers(result));
+    }
+    if (bitmaps != 0) {
+      bitmapsOred.add(bitmaps);
+    }
+    if (allocated != 0) {
+      allocatedBytes.add(allocated);
+    }
+  }
+
+  private static int containers(RoaringBitmap bitmap) {
+    int containers = 0;
+    for (ContainerPointer it = bitmap.getContainerPointer(); it.getContainer() != null; it.advance()) {
+      containers++;
+    }
+    return containers;
+  }
+
+  public Snapshot snapshot() {
+    return new Snapshot(latency.snapshot(), cardinality.sum(), containers.sum(),
+        bitmapsOred.sum(), allocatedBytes.sum());
+  }
+
+  public static final class Snapshot {
+
+    private final LatencyHistogram.Snapshot latency;
+    private final long cardinality;
+    private final long containers;
+    private final long bitmapsOred;
+    private final long allocatedBytes;
+
+    private Snapshot(LatencyHistogram.Snapshot latency, long cardinality, long containers,
+                     long bitmapsOred, long allocatedBytes) {
+      this.latency = latency;
+      this.cardinality = cardinality;
+      this.containers = containers;
+      this.bitmapsOred = bitmapsOred;
+      this.allocatedBytes = allocatedBytes;
+    }
+
+    public long calls() {
+      return latency.count();
+    }
+
+    public LatencyHistogram.Snapshot latency() {
+      return latency;
+    }
+
+    public long cardinality() {
+      return cardinality;
+    }
+
+    public long containers() {
+      return containers;
+    }
+
+    public long bitmapsOred() {
+      return bitmapsOred;
+    }
+
+    public long allocatedBytes() {
+      return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+      return "calls=" + calls()
+          + ", p50=" + latency.valueAtPercentile(50) + "ns"
+          + ", p99=" + latency.valueAtPercentile(99) + "ns"
+          + ", p99.9=" + latency.valueAtPercentile(99.9) + "ns"
+          + ", max=" + latency.max() + "ns"
+          + ", cardinality=" + cardinality
+          + ", containers=" + containers
+          + ", bitmapsOred=" + bitmapsOred
+          + ", allocatedBytes=" + allocatedBytes;
+    }
+  }
+}
@@ -0,0 +1,323 @@
+package io.github.richardstartin.range;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.RoaringBitmapWriter;
+
+public class QueryService implements AutoCloseable {
+
+  private static final int BLOCK_SIZE = 4096;
+  private static final int MIN_CHUNK_SIZE = 1 << 16;
+
+  private final long[] timestamps;
+  private final long[] prices;
+  private final long[] quantities;
+  private final ExecutorService executor;
+  private final boolean ownsExecutor;
+  private final int parallelism;
+  private final long windowNanos;
+  private final int maxBatchSize;
+  private final BlockingQueue<Query<?>> queue;
+  private final Thread dispatcher;
+  private volatile boolean closed;
+
+  public QueryService(long[] timestamps, long[] prices, long[] quantities) {
+    this(timestamps, prices, quantities, 0, 1);
+  }
+
+  public QueryService(long[] timestamps, long[] prices, long[] quantities, long windowMicros, int maxBatchSize) {
+    this(timestamps, prices, quantities, defaultExecutor(), true, windowMicros, maxBatchSize);
+  }
+
+  public QueryService(long[] timestamps, long[] prices, long[] quantities,
+                      ExecutorService executor, long windowMicros, int maxBatchSize) {
+    this(timestamps, prices, quantities, executor, false, windowMicros, maxBatchSize);
+  }
+
+  private QueryService(long[] timestamps, long[] prices, long[] quantities,
+                       ExecutorService executor, boolean ownsExecutor, long windowMicros, int maxBatchSize) {
+    this.timestamps = timestamps;
+    this.prices = prices;
+    this.quantities = quantities;
+    this.executor = executor;
+    this.ownsExecutor = ownsExecutor;
+    this.parallelism = Runtime.getRuntime().availableProcessors();
+    this.windowNanos = TimeUnit.MICROSECONDS.toNanos(windowMicros);
+    this.maxBatchSize = maxBatchSize;
+    if (maxBatchSize > 1) {
+      this.queue = new LinkedBlockingQueue<>();
+      this.dispatcher = new Thread(this::dispatch, "query-service-dispatcher");
+      this.dispatcher.setDaemon(true);
+      this.dispatcher.start();
+    } else {
+      this.queue = null;
+      this.dispatcher = null;
+    }
+  }
+
+  public static ExecutorService defaultExecutor() {
+    return Executors.newCachedThreadPool(task -> {
+      Thread thread = new Thread(task, "query-service-worker");
+      thread.setDaemon(true);
+      return thread;
+    });
+  }
+
+  public CompletableFuture<Long> count(long begin, long end, long minQuantity, long maxPrice) {
+    return submit(new CountQuery(begin, end, minQuantity, maxPrice));
+  }
+
+  public CompletableFuture<RoaringBitmap> find(long begin, long end, long minQuantity, long maxPrice) {
+    return submit(new FindQuery(begin, end, minQuantity, maxPrice));
+  }
+
+  private <T> CompletableFuture<T> submit(Query<T> query) {
+    if (closed) {
+      return CompletableFuture.failedFuture(new IllegalStateException("query service is closed"));
+    }
+    if (queue == null) {
+      return CompletableFuture.supplyAsync(() -> {
+        execute(new Query<?>[] {query}, false);
+        return query.result();
+      }, executor);
+    }
+    queue.add(query);
+    if (closed && queue.remove(query)) {
+      query.future.completeExceptionally(new IllegalStateException("query service is closed"));
+    }
+    return query.future;
+  }
+
+  private void dispatch() {
+    List<Query<?>> batch = new ArrayList<>(maxBatchSize);
+    try {
+      while (!closed) {
+        Query<?> first = queue.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+          continue;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + windowNanos;
+        while (batch.size() < maxBatchSize) {
+          long remaining = deadline - System.nanoTime();
+          Query<?> next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+          if (next == null) {
+            break;
+          }
+          batch.add(next);
+        }
+        try {
+          execute(batch.toArray(new Query<?>[0]), true);
+          for (Query<?> query : batch) {
+            query.completeOn(executor);
+          }
+        } catch (RuntimeException e) {
+          for (Query<?> query : batch) {
+            query.future.completeExceptionally(e);
+          }
+        }
+        batch.clear();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    for (Query<?> query : batch) {
+      query.future.completeExceptionally(new IllegalStateException("query service is closed"));
+    }
+    for (Query<?> query = queue.poll(); query != null; query = queue.poll()) {
+      query.future.completeExceptionally(new IllegalStateException("query service is closed"));
+    }
+  }
+
+  private void execute(Query<?>[] batch, boolean parallel) {
+    int from = timestamps.length;
+    int to = 0;
+    for (Query<?> query : batch) {
+      query.first = lowerBound(query.begin);
+      query.last = query.end < query.begin ? query.first : lowerBound(query.end + 1);
+      if (query.first < query.last) {
+        from = Math.min(from, query.first);
+        to = Math.max(to, query.last);
+      }
+    }
+    Arrays.sort(batch, Comparator.comparingInt(query -> query.first));
+    int chunks = parallel && to > from ? Math.max(1, Math.min(parallelism, (to - from) / MIN_CHUNK_SIZE)) : 1;
+    for (Query<?> query : batch) {
+      query.prepare(chunks);
+    }
+    if (chunks == 1) {
+      scan(batch, from, to, 0);
+      return;
+    }
+    long span = to - from;
+    CompletableFuture<?>[] tasks = new CompletableFuture<?>[chunks - 1];
+    for (int chunk = 1; chunk < chunks; chunk++) {
+      int chunkId = chunk;
+      int chunkFrom = (int) (from + span * chunk / chunks);
+      int chunkTo = (int) (from + span * (chunk + 1) / chunks);
+      tasks[chunk - 1] = CompletableFuture.runAsync(() -> scan(batch, chunkFrom, chunkTo, chunkId), executor);
+    }
+    scan(batch, from, (int) (from + span / chunks), 0);
+    CompletableFuture.allOf(tasks).join();
+  }
+
+  private void scan(Query<?>[] batch, int from, int to, int chunk) {
+    Query<?>[] active = new Query<?>[batch.length];
+    int activeCount = 0;
+    int next = 0;
+    for (; next < batch.length && batch[next].first < from; next++) {
+      if (batch[next].last > from) {
+        active[activeCount++] = batch[next];
+      }
+    }
+    for (int block = from; block < to; block += BLOCK_SIZE) {
+      int blockEnd = Math.min(to, block + BLOCK_SIZE);
+      for (; next < batch.length && batch[next].first < blockEnd; next++) {
+        if (batch[next].last > batch[next].first) {
+          active[activeCount++] = batch[next];
+        }
+      }
+      int remaining = 0;
+      for (int i = 0; i < activeCount; i++) {
+        Query<?> query = active[i];
+        query.scan(quantities, prices, Math.max(block, query.first), Math.min(blockEnd, query.last), chunk);
+        if (query.last > blockEnd) {
+          active[remaining++] = query;
+        }
+      }
+      activeCount = remaining;
+    }
+  }
+
+  private int lowerBound(long key) {
+    int low = 0;
+    int high = timestamps.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (timestamps[mid] < key) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+
+  @Override
+  public void close() {
+    closed = true;
+    if (dispatcher != null) {
+      dispatcher.interrupt();
+      try {
+        dispatcher.join();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+    if (ownsExecutor) {
+      executor.shutdown();
+    }
+  }
+
+  private abstract static class Query<T> {
+    final long begin;
+    final long end;
+    final long minQuantity;
+    final long maxPrice;
+    final CompletableFuture<T> future = new CompletableFuture<>();
+    int first;
+    int last;
+
+    Query(long begin, long end, long minQuantity, long maxPrice) {
+      this.begin = begin;
+      this.end = end;
+      this.minQuantity = minQuantity;
+      this.maxPrice = maxPrice;
+    }
+
+    abstract void prepare(int chunks);
+
+    abstract void scan(long[] quantities, long[] prices, int from, int to, int chunk);
+
+    abstract T result();
+
+    void completeOn(ExecutorService executor) {
+      T result = result();
+      executor.execute(() -> future.complete(result));
+    }
+  }
+
+  private static final class CountQuery extends Query<Long> {
+    long[] counts;
+
+    CountQuery(long begin, long end, long minQuantity, long maxPrice) {
+      super(begin, end, minQuantity, maxPrice);
+    }
+
+    @Override
+    void prepare(int chunks) {
+      counts = new long[chunks];
+    }
+
+    @Override
+    void scan(long[] quantities, long[] prices, int from, int to, int chunk) {
+      long count = 0;
+      for (int i = from; i < to; i++) {
+        count += (quantities[i] >= minQuantity ? 1 : 0) & (prices[i] <= maxPrice ? 1 : 0);
+      }
+      counts[chunk] += count;
+    }
+
+    @Override
+    Long result() {
+      long count = 0;
+      for (long partial : counts) {
+        count += partial;
+      }
+      return count;
+    }
+  }
+
+  private static final class FindQuery extends Query<RoaringBitmap> {
+    RoaringBitmapWriter<RoaringBitmap>[] writers;
+
+    FindQuery(long begin, long end, long minQuantity, long maxPrice) {
+      super(begin, end, minQuantity, maxPrice);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    void prepare(int chunks) {
+      writers = new RoaringBitmapWriter[chunks];
+      Arrays.setAll(writers, i -> RoaringBitmapWriter.writer().get());
+    }
+
+    @Override
+    void scan(long[] quantities, long[] prices, int from, int to, int chunk) {
+      RoaringBitmapWriter<RoaringBitmap> writer = writers[chunk];
+      for (int i = from; i < to; i++) {
+        if (quantities[i] >= minQuantity & prices[i] <= maxPrice) {
+          writer.add(i);
+        }
+      }
+    }
+
+    @Override
+    RoaringBitmap result() {
+      RoaringBitmap result = writers[0].get();
+      for (int i = 1; i < writers.length; i++) {
+        result.or(writers[i].get());
+      }
+      return result;
+    }
+  }
+}
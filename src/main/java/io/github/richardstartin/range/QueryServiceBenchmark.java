@@ -0,0 +1,85 @@
+package io.github.richardstartin.range;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.infra.Blackhole;
+
+
+@BenchmarkMode({Mode.SampleTime, Mode.Throughput})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Threads(16)
+public class QueryServiceBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class ServiceState extends Transactions {
+
+    @Param({"false", "true"})
+    boolean coalesce;
+
+    @Param({"50"})
+    long windowMicros;
+
+    @Param({"64"})
+    int maxBatchSize;
+
+    QueryService service;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      super.setup();
+      columns();
+      service = coalesce
+          ? new QueryService(timestamps, prices, quantities, windowMicros, maxBatchSize)
+          : new QueryService(timestamps, prices, quantities);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      service.close();
+    }
+  }
+
+  @State(Scope.Thread)
+  public static class LoadGenerator {
+
+    private static final AtomicLong SEED = new AtomicLong(42);
+
+    private final SplittableRandom random = new SplittableRandom(SEED.getAndIncrement());
+
+    long begin;
+    long end;
+    long minQuantity;
+    long maxPrice;
+
+    @Setup(Level.Invocation)
+    public void next(ServiceState state) {
+      int first = random.nextInt(state.size - state.size / 10);
+      begin = state.timestamps[first];
+      end = state.timestamps[first + state.size / 10];
+      minQuantity = random.nextLong(state.minQuantity, 10000);
+      maxPrice = random.nextLong(state.minPrice, 1000000);
+    }
+  }
+
+  @Benchmark
+  public long count(ServiceState state, LoadGenerator query) {
+    return state.service.count(query.begin, query.end, query.minQuantity, query.maxPrice).join();
+  }
+
+  @Benchmark
+  public void find(ServiceState state, LoadGenerator query, Blackhole bh) {
+    bh.consume(state.service.find(query.begin, query.end, query.minQuantity, query.maxPrice).join());
+  }
+}
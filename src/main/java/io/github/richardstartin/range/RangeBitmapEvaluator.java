@@ -3,10 +3,16 @@ package io.github.richardstartin.range;
 import org.roaringbitmap.RangeBitmap;
 import org.roaringbitmap.RoaringBitmap;
 
+import java.util.Arrays;
+
 public class RangeBitmapEvaluator implements RangeEvaluator {
 
+  private static final int SAMPLE_SIZE = 1024;
+
   private final RangeBitmap bitmap;
   private final int serializedSize;
+  private final int rows;
+  private final long[] sample;
 
   public RangeBitmapEvaluator(long[] data) {
     long min = Long.MAX_VALUE;
@@ -15,12 +21,20 @@ public class RangeBitmapEvaluator implements RangeEvaluator {
       min = Math.min(min, datum);
       max = Math.max(max, datum);
     }
-    var appender = RangeBitmap.appender(max);
+    var appender = RangeBitmap.appender(max - min);
     for (long datum : data) {
       appender.add(datum - min);
     }
     serializedSize = appender.serializedSizeInBytes();
     this.bitmap = appender.build();
+    this.rows = data.length;
+    int stride = Math.max(1, data.length / SAMPLE_SIZE);
+    long[] sample = new long[(data.length + stride - 1) / stride];
+    for (int i = 0; i < sample.length; i++) {
+      sample[i] = data[i * stride] - min;
+    }
+    Arrays.sort(sample);
+    this.sample = sample;
   }
 
   @Override
@@ -28,6 +42,33 @@ public class RangeBitmapEvaluator implements RangeEvaluator {
     return bitmap.between(min, max);
   }
 
+  @Override
+  public Selection select(long min, long max) {
+    if (estimateSelectivity(min, max) > 0.5) {
+      RoaringBitmap excluded = bitmap.gt(max);
+      if (min > 0) {
+        excluded.or(bitmap.lt(min));
+      }
+      return Selection.complementOf(excluded, rows);
+    }
+    return Selection.of(bitmap.between(min, max));
+  }
+
+  private double estimateSelectivity(long min, long max) {
+    int first = lowerBound(sample, min);
+    int last = max == Long.MAX_VALUE ? sample.length : lowerBound(sample, max + 1);
+    return (double) (last - first) / sample.length;
+  }
+
+  private static int lowerBound(long[] values, long key) {
+    int start = Arrays.binarySearch(values, key);
+    int index = start >= 0 ? start : -start - 1;
+    while (index - 1 >= 0 && values[index - 1] == key) {
+      index--;
+    }
+    return index;
+  }
+
   @Override
   public int serializedSize() {
     return serializedSize;
@@ -8,4 +8,8 @@ public interface RangeEvaluator {
 
   int serializedSize();
 
+  default Selection select(long min, long max) {
+    return Selection.of(between(min, max));
+  }
+
 }
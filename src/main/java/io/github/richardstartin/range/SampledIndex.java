@@ -0,0 +1,161 @@
+package io.github.richardstartin.range;
+
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+import org.roaringbitmap.RangeBitmap;
+import org.roaringbitmap.RoaringBitmap;
+
+public class SampledIndex {
+
+  public enum Sampling {
+    UNIFORM {
+      @Override
+      int[] sample(int rows, int sampleSize, SplittableRandom random) {
+        int[] sample = new int[sampleSize];
+        int selected = 0;
+        for (int i = 0; i < rows && selected < sampleSize; i++) {
+          if (random.nextInt(rows - i) < sampleSize - selected) {
+            sample[selected++] = i;
+          }
+        }
+        return sample;
+      }
+    },
+    STRATIFIED {
+      @Override
+      int[] sample(int rows, int sampleSize, SplittableRandom random) {
+        int[] sample = new int[sampleSize];
+        for (int i = 0; i < sampleSize; i++) {
+          int begin = (int) ((long) i * rows / sampleSize);
+          int end = (int) ((long) (i + 1) * rows / sampleSize);
+          sample[i] = begin + random.nextInt(end - begin);
+        }
+        return sample;
+      }
+    };
+
+    abstract int[] sample(int rows, int sampleSize, SplittableRandom random);
+  }
+
+  private static final double Z = 1.959964;
+
+  private final int rows;
+  private final int sampleSize;
+  private final long minTime;
+  private final long maxTime;
+  private final long minPrice;
+  private final long minQuantity;
+  private final long maxQuantity;
+  private final RangeBitmap timestampIndex;
+  private final RangeBitmap priceIndex;
+  private final RangeBitmap quantityIndex;
+
+  public SampledIndex(long[] timestamps, long[] prices, long[] quantities,
+                      double rate, Sampling sampling, long seed) {
+    this.rows = timestamps.length;
+    this.sampleSize = Math.max(1, Math.min(rows, (int) Math.round(rows * rate)));
+    int[] sample = sampling.sample(rows, sampleSize, new SplittableRandom(seed));
+    long minTime = Long.MAX_VALUE;
+    long maxTime = Long.MIN_VALUE;
+    long minPrice = Long.MAX_VALUE;
+    long maxPrice = Long.MIN_VALUE;
+    long minQty = Long.MAX_VALUE;
+    long maxQty = Long.MIN_VALUE;
+    for (int row : sample) {
+      minTime = Math.min(minTime, timestamps[row]);
+      maxTime = Math.max(maxTime, timestamps[row]);
+      minPrice = Math.min(minPrice, prices[row]);
+      maxPrice = Math.max(maxPrice, prices[row]);
+      minQty = Math.min(minQty, quantities[row]);
+      maxQty = Math.max(maxQty, quantities[row]);
+    }
+    var timestampAppender = RangeBitmap.appender(maxTime - minTime);
+    var priceAppender = RangeBitmap.appender(maxPrice - minPrice);
+    var qtyAppender = RangeBitmap.appender(maxQty - minQty);
+    for (int row : sample) {
+      timestampAppender.add(timestamps[row] - minTime);
+      priceAppender.add(prices[row] - minPrice);
+      qtyAppender.add(quantities[row] - minQty);
+    }
+    this.minTime = minTime;
+    this.maxTime = maxTime;
+    this.minPrice = minPrice;
+    this.minQuantity = minQty;
+    this.maxQuantity = maxQty;
+    this.timestampIndex = timestampAppender.build();
+    this.priceIndex = priceAppender.build();
+    this.quantityIndex = qtyAppender.build();
+  }
+
+  public Estimate estimate(long begin, long end, long minQuantity, long maxPrice) {
+    return Estimate.fromSample(sampleCount(begin, end, minQuantity, maxPrice), sampleSize, rows);
+  }
+
+  public Estimate count(long begin, long end, long minQuantity, long maxPrice, double tolerance, LongSupplier exact) {
+    Estimate estimate = estimate(begin, end, minQuantity, maxPrice);
+    return estimate.relativeHalfWidth() > tolerance ? Estimate.exact(exact.getAsLong()) : estimate;
+  }
+
+  private long sampleCount(long begin, long end, long minQuantity, long maxPrice) {
+    if (end < this.minTime || begin > this.maxTime || begin > end
+        || minQuantity > this.maxQuantity || maxPrice < this.minPrice) {
+      return 0;
+    }
+    long first = Math.max(begin, this.minTime) - this.minTime;
+    long last = Math.min(end, this.maxTime) - this.minTime;
+    RoaringBitmap inTimeRange = timestampIndex.between(first, last);
+    RoaringBitmap matchesQuantity = minQuantity <= this.minQuantity
+        ? inTimeRange
+        : quantityIndex.gte(minQuantity - this.minQuantity, inTimeRange);
+    return priceIndex.lteCardinality(maxPrice - this.minPrice, matchesQuantity);
+  }
+
+  public static final class Estimate {
+
+    private final double value;
+    private final double lower;
+    private final double upper;
+    private final boolean exact;
+
+    private Estimate(double value, double lower, double upper, boolean exact) {
+      this.value = value;
+      this.lower = lower;
+      this.upper = upper;
+      this.exact = exact;
+    }
+
+    static Estimate exact(long count) {
+      return new Estimate(count, count, count, true);
+    }
+
+    static Estimate fromSample(long matches, int sampleSize, int rows) {
+      double p = (double) matches / sampleSize;
+      double z2 = Z * Z / sampleSize;
+      double centre = (p + z2 / 2) / (1 + z2);
+      double halfWidth = Z / (1 + z2) * Math.sqrt(p * (1 - p) / sampleSize + z2 / (4 * sampleSize));
+      double lower = matches == 0 ? 0 : Math.max(0, centre - halfWidth);
+      double upper = matches == sampleSize ? 1 : Math.min(1, centre + halfWidth);
+      return new Estimate(p * rows, lower * rows, upper * rows, false);
+    }
+
+    public long count() {
+      return Math.round(value);
+    }
+
+    public double lower() {
+      return lower;
+    }
+
+    public double upper() {
+      return upper;
+    }
+
+    public boolean isExact() {
+      return exact;
+    }
+
+    public double relativeHalfWidth() {
+      return (upper - lower) / (2 * Math.max(1, value));
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package io.github.richardstartin.range;
+
+import org.roaringbitmap.IntConsumer;
+import org.roaringbitmap.PeekableIntIterator;
+import org.roaringbitmap.RoaringBitmap;
+
+public final class Selection {
+
+  private final RoaringBitmap bitmap;
+  private final boolean complement;
+  private final int rows;
+
+  private Selection(RoaringBitmap bitmap, boolean complement, int rows) {
+    this.bitmap = bitmap;
+    this.complement = complement;
+    this.rows = rows;
+  }
+
+  public static Selection of(RoaringBitmap bitmap) {
+    return new Selection(bitmap, false, -1);
+  }
+
+  public static Selection complementOf(RoaringBitmap excluded, int rows) {
+    return new Selection(excluded, true, rows);
+  }
+
+  public boolean isComplement() {
+    return complement;
+  }
+
+  public Selection and(Selection other) {
+    if (!complement) {
+      return other.complement
+          ? of(RoaringBitmap.andNot(bitmap, other.bitmap))
+          : of(RoaringBitmap.and(bitmap, other.bitmap));
+    }
+    return other.complement
+        ? complementOf(RoaringBitmap.or(bitmap, other.bitmap), sameRows(other))
+        : of(RoaringBitmap.andNot(other.bitmap, bitmap));
+  }
+
+  public Selection or(Selection other) {
+    if (!complement) {
+      return other.complement
+          ? complementOf(RoaringBitmap.andNot(other.bitmap, bitmap), other.rows)
+          : of(RoaringBitmap.or(bitmap, other.bitmap));
+    }
+    return other.complement
+        ? complementOf(RoaringBitmap.and(bitmap, other.bitmap), sameRows(other))
+        : complementOf(RoaringBitmap.andNot(bitmap, other.bitmap), rows);
+  }
+
+  public Selection andNot(Selection other) {
+    if (!complement) {
+      return other.complement
+          ? of(RoaringBitmap.and(bitmap, other.bitmap))
+          : of(RoaringBitmap.andNot(bitmap, other.bitmap));
+    }
+    if (other.complement) {
+      sameRows(other);
+      return of(RoaringBitmap.andNot(other.bitmap, bitmap));
+    }
+    return complementOf(RoaringBitmap.or(bitmap, other.bitmap), rows);
+  }
+
+  public long cardinality() {
+    return complement ? rows - bitmap.getLongCardinality() : bitmap.getLongCardinality();
+  }
+
+  public long andCardinality(Selection other) {
+    if (!complement) {
+      return other.complement
+          ? RoaringBitmap.andNotCardinality(bitmap, other.bitmap)
+          : RoaringBitmap.andCardinality(bitmap, other.bitmap);
+    }
+    return other.complement
+        ? sameRows(other) - RoaringBitmap.orCardinality(bitmap, other.bitmap)
+        : RoaringBitmap.andNotCardinality(other.bitmap, bitmap);
+  }
+
+  public RoaringBitmap toBitmap() {
+    return complement ? RoaringBitmap.flip(bitmap, 0L, rows) : bitmap;
+  }
+
+  public void forEach(IntConsumer consumer) {
+    if (!complement) {
+      bitmap.forEach(consumer);
+      return;
+    }
+    PeekableIntIterator excluded = bitmap.getIntIterator();
+    int row = 0;
+    while (row < rows) {
+      int next = excluded.hasNext() ? Math.min(excluded.next(), rows) : rows;
+      for (; row < next; row++) {
+        consumer.accept(row);
+      }
+      row = next + 1;
+    }
+  }
+
+  private int sameRows(Selection other) {
+    if (rows != other.rows) {
+      throw new IllegalArgumentException("complements over " + rows + " and " + other.rows + " rows");
+    }
+    return rows;
+  }
+}
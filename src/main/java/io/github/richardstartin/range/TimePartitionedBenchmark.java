@@ -0,0 +1,82 @@
+package io.github.richardstartin.range;
+
+import java.util.Collections;
+import java.util.Comparator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+import org.roaringbitmap.RoaringBitmap;
+
+
+public class TimePartitionedBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class PartitionedTransactions extends Transactions {
+
+    @Param({"3600", "86400"})
+    long partitionSeconds;
+
+    @Param({"3600", "21600", "86400", "259200"})
+    long windowSeconds;
+
+    @Param({"true", "false"})
+    boolean parallel;
+
+    TimePartitionedIndex partitionedIndex;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      super.setup();
+      columns();
+      minTimeThreshold = timestamps[size / 2];
+      int last = size / 2;
+      while (last + 1 < size && timestamps[last + 1] <= minTimeThreshold + windowSeconds) {
+        last++;
+      }
+      maxTimeThreshold = timestamps[last];
+      partitionedIndex = new TimePartitionedIndex(timestamps, prices, quantities, partitionSeconds, parallel);
+    }
+  }
+
+  @Benchmark
+  public long index(PartitionedTransactions state) {
+    int qty = state.minQuantityThreshold - state.minQuantity;
+    long price = state.maxPriceThreshold - state.minPrice;
+    long begin = state.minTimeThreshold - state.minTime;
+    long end = state.maxTimeThreshold - state.minTime;
+    RoaringBitmap inTimeRange = state.timestampIndex.between(begin, end);
+    RoaringBitmap matchesQuantity = state.quantityIndex.gte(qty, inTimeRange);
+    return state.priceIndex.lteCardinality(price, matchesQuantity);
+  }
+
+  @Benchmark
+  public long binarySearchThenIndex(PartitionedTransactions state) {
+    int qty = state.minQuantityThreshold - state.minQuantity;
+    long price = state.maxPriceThreshold - state.minPrice;
+    long begin = state.minTimeThreshold;
+    long end = state.maxTimeThreshold;
+    int first = Collections.binarySearch(state.transactions, new Transaction(0, 0, begin),
+        Comparator.comparingLong(Transaction::getTimestamp));
+    int last = Collections.binarySearch(state.transactions, new Transaction(0, 0, end),
+        Comparator.comparingLong(Transaction::getTimestamp));
+    RoaringBitmap inTimeRange = RoaringBitmap.bitmapOfRange(first, last + 1);
+    RoaringBitmap matchesQuantity = state.quantityIndex.gte(qty, inTimeRange);
+    return state.priceIndex.lteCardinality(price, matchesQuantity);
+  }
+
+  @Benchmark
+  public long partitionedCount(PartitionedTransactions state) {
+    return state.partitionedIndex.count(state.minTimeThreshold, state.maxTimeThreshold,
+        state.minQuantityThreshold, state.maxPriceThreshold);
+  }
+
+  @Benchmark
+  public void partitionedRows(PartitionedTransactions state, Blackhole bh) {
+    bh.consume(state.partitionedIndex.rows(state.minTimeThreshold, state.maxTimeThreshold,
+        state.minQuantityThreshold, state.maxPriceThreshold));
+  }
+}
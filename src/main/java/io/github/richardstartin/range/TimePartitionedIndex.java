@@ -0,0 +1,193 @@
+package io.github.richardstartin.range;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RangeBitmap;
+import org.roaringbitmap.RoaringBitmap;
+
+public class TimePartitionedIndex implements TransactionQueries {
+
+  private final long[] timestamps;
+  private final Partition[] partitions;
+  private final boolean parallel;
+
+  public TimePartitionedIndex(long[] timestamps, long[] prices, long[] quantities,
+                              long partitionSeconds, boolean parallel) {
+    this.timestamps = timestamps;
+    this.parallel = parallel;
+    List<Partition> partitions = new ArrayList<>();
+    int start = 0;
+    for (int i = 1; i <= timestamps.length; i++) {
+      if (i == timestamps.length
+          || Math.floorDiv(timestamps[i], partitionSeconds) != Math.floorDiv(timestamps[start], partitionSeconds)) {
+        partitions.add(new Partition(timestamps, prices, quantities, start, i));
+        start = i;
+      }
+    }
+    this.partitions = partitions.toArray(Partition[]::new);
+  }
+
+  @Override
+  public long count(long begin, long end, long minQuantity, long maxPrice) {
+    return candidates(begin, end)
+        .mapToLong(i -> partitions[i].count(timestamps, begin, end, minQuantity, maxPrice))
+        .sum();
+  }
+
+  @Override
+  public RoaringBitmap rows(long begin, long end, long minQuantity, long maxPrice) {
+    return FastAggregation.or(candidates(begin, end)
+        .mapToObj(i -> partitions[i].rows(timestamps, begin, end, minQuantity, maxPrice))
+        .toArray(RoaringBitmap[]::new));
+  }
+
+  private IntStream candidates(long begin, long end) {
+    if (begin > end) {
+      return IntStream.empty();
+    }
+    int low = 0;
+    int high = partitions.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (partitions[mid].maxTime < begin) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    int first = low;
+    int last = first;
+    while (last < partitions.length && partitions[last].minTime <= end) {
+      last++;
+    }
+    IntStream candidates = IntStream.range(first, last);
+    return parallel && last - first > 1 ? candidates.parallel() : candidates;
+  }
+
+  private static final class Partition {
+
+    private final int firstRow;
+    private final int endRow;
+    private final long minTime;
+    private final long maxTime;
+    private final long minPrice;
+    private final long maxPrice;
+    private final long minQuantity;
+    private final long maxQuantity;
+    private final RangeBitmap priceIndex;
+    private final RangeBitmap quantityIndex;
+
+    private Partition(long[] timestamps, long[] prices, long[] quantities, int firstRow, int endRow) {
+      this.firstRow = firstRow;
+      this.endRow = endRow;
+      this.minTime = timestamps[firstRow];
+      this.maxTime = timestamps[endRow - 1];
+      long minPrice = Long.MAX_VALUE;
+      long maxPrice = Long.MIN_VALUE;
+      long minQty = Long.MAX_VALUE;
+      long maxQty = Long.MIN_VALUE;
+      for (int i = firstRow; i < endRow; i++) {
+        minPrice = Math.min(minPrice, prices[i]);
+        maxPrice = Math.max(maxPrice, prices[i]);
+        minQty = Math.min(minQty, quantities[i]);
+        maxQty = Math.max(maxQty, quantities[i]);
+      }
+      var priceAppender = RangeBitmap.appender(maxPrice - minPrice);
+      var qtyAppender = RangeBitmap.appender(maxQty - minQty);
+      for (int i = firstRow; i < endRow; i++) {
+        priceAppender.add(prices[i] - minPrice);
+        qtyAppender.add(quantities[i] - minQty);
+      }
+      this.minPrice = minPrice;
+      this.maxPrice = maxPrice;
+      this.minQuantity = minQty;
+      this.maxQuantity = maxQty;
+      this.priceIndex = priceAppender.build();
+      this.quantityIndex = qtyAppender.build();
+    }
+
+    long count(long[] timestamps, long begin, long end, long minQuantity, long maxPrice) {
+      if (minQuantity > this.maxQuantity || maxPrice < this.minPrice) {
+        return 0;
+      }
+      RoaringBitmap context = timeRange(timestamps, begin, end);
+      if (null != context && context.isEmpty()) {
+        return 0;
+      }
+      RoaringBitmap matchesQuantity = matchesQuantity(minQuantity, context);
+      if (maxPrice >= this.maxPrice) {
+        return null == matchesQuantity ? endRow - firstRow : matchesQuantity.getLongCardinality();
+      }
+      return null == matchesQuantity
+          ? priceIndex.lteCardinality(maxPrice - this.minPrice)
+          : priceIndex.lteCardinality(maxPrice - this.minPrice, matchesQuantity);
+    }
+
+    RoaringBitmap rows(long[] timestamps, long begin, long end, long minQuantity, long maxPrice) {
+      if (minQuantity > this.maxQuantity || maxPrice < this.minPrice) {
+        return new RoaringBitmap();
+      }
+      RoaringBitmap context = timeRange(timestamps, begin, end);
+      if (null != context && context.isEmpty()) {
+        return context;
+      }
+      RoaringBitmap matches = matchesQuantity(minQuantity, context);
+      if (maxPrice < this.maxPrice) {
+        matches = null == matches
+            ? priceIndex.lte(maxPrice - this.minPrice)
+            : priceIndex.lte(maxPrice - this.minPrice, matches);
+      } else if (null == matches) {
+        return RoaringBitmap.bitmapOfRange(firstRow, endRow);
+      }
+      return RoaringBitmap.addOffset(matches, firstRow);
+    }
+
+    private RoaringBitmap matchesQuantity(long minQuantity, RoaringBitmap context) {
+      if (minQuantity <= this.minQuantity) {
+        return context;
+      }
+      return null == context
+          ? quantityIndex.gte(minQuantity - this.minQuantity)
+          : quantityIndex.gte(minQuantity - this.minQuantity, context);
+    }
+
+    private RoaringBitmap timeRange(long[] timestamps, long begin, long end) {
+      if (begin <= minTime && end >= maxTime) {
+        return null;
+      }
+      int first = lowerBound(timestamps, firstRow, endRow, begin);
+      int last = upperBound(timestamps, first, endRow, end);
+      return RoaringBitmap.bitmapOfRange(first - firstRow, last - firstRow);
+    }
+
+    private static int lowerBound(long[] values, int from, int to, long key) {
+      int low = from;
+      int high = to;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (values[mid] < key) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+
+    private static int upperBound(long[] values, int from, int to, long key) {
+      int low = from;
+      int high = to;
+      while (low < high) {
+        int mid = (low + high) >>> 1;
+        if (values[mid] <= key) {
+          low = mid + 1;
+        } else {
+          high = mid;
+        }
+      }
+      return low;
+    }
+  }
+}
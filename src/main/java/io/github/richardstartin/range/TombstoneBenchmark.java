@@ -0,0 +1,128 @@
+package io.github.richardstartin.range;
+
+import java.util.SplittableRandom;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.roaringbitmap.RoaringBitmap;
+
+
+public class TombstoneBenchmark {
+
+  @State(Scope.Benchmark)
+  public static class TombstoneState extends Transactions {
+
+    @Param({"0", "0.01", "0.05", "0.1", "0.2", "0.3"})
+    double tombstoneRatio;
+
+    @Param("131072")
+    int segmentSize;
+
+    TransactionStore store;
+    RangeEvaluator priceEvaluator;
+    RangeEvaluator filteredPriceEvaluator;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      super.setup();
+      columns();
+      RoaringBitmap deleted = new RoaringBitmap();
+      store = load(this, segmentSize, 1D, tombstoneRatio, deleted);
+      priceEvaluator = new RangeBitmapEvaluator(prices);
+      filteredPriceEvaluator = new TombstoneFilteringEvaluator(priceEvaluator, new Tombstones(deleted));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+      store.close();
+    }
+  }
+
+  @State(Scope.Benchmark)
+  public static class CompactionState extends Transactions {
+
+    @Param({"0.05", "0.1", "0.2", "0.3"})
+    double tombstoneRatio;
+
+    @Param("131072")
+    int segmentSize;
+
+    TransactionStore store;
+
+    @Setup(Level.Trial)
+    public void setup() {
+      super.setup();
+    }
+
+    @Setup(Level.Invocation)
+    public void reload() {
+      store = load(this, segmentSize, 0D, tombstoneRatio, new RoaringBitmap());
+    }
+
+    @TearDown(Level.Invocation)
+    public void tearDown() {
+      store.close();
+    }
+  }
+
+  @Benchmark
+  public long index(TombstoneState state) {
+    int qty = state.minQuantityThreshold - state.minQuantity;
+    long price = state.maxPriceThreshold - state.minPrice;
+    long begin = state.minTimeThreshold - state.minTime;
+    long end = state.maxTimeThreshold - state.minTime;
+    RoaringBitmap inTimeRange = state.timestampIndex.between(begin, end);
+    RoaringBitmap matchesQuantity = state.quantityIndex.gte(qty, inTimeRange);
+    return state.priceIndex.lteCardinality(price, matchesQuantity);
+  }
+
+  @Benchmark
+  public long storeCount(TombstoneState state) {
+    return state.store.count(state.minTimeThreshold, state.maxTimeThreshold,
+        state.minQuantityThreshold, state.maxPriceThreshold);
+  }
+
+  @Benchmark
+  public void storeFind(TombstoneState state, Blackhole bh) {
+    bh.consume(state.store.find(state.minTimeThreshold, state.maxTimeThreshold,
+        state.minQuantityThreshold, state.maxPriceThreshold));
+  }
+
+  @Benchmark
+  public void evaluator(TombstoneState state, Blackhole bh) {
+    bh.consume(state.priceEvaluator.between(0, state.maxPriceThreshold - state.minPrice));
+  }
+
+  @Benchmark
+  public void filteredEvaluator(TombstoneState state, Blackhole bh) {
+    bh.consume(state.filteredPriceEvaluator.between(0, state.maxPriceThreshold - state.minPrice));
+  }
+
+  @Benchmark
+  @BenchmarkMode(Mode.SingleShotTime)
+  public int compact(CompactionState state, Counters counters) {
+    counters.rows = state.store.compact();
+    return counters.rows;
+  }
+
+  private static TransactionStore load(Transactions state, int segmentSize, double compactionThreshold,
+                                       double tombstoneRatio, RoaringBitmap deleted) {
+    TransactionStore store = new TransactionStore(segmentSize, compactionThreshold);
+    SplittableRandom random = new SplittableRandom(42);
+    for (int i = 0; i < state.transactions.size(); i++) {
+      int rowId = store.append(state.transactions.get(i));
+      if (random.nextDouble() < tombstoneRatio) {
+        store.delete(rowId);
+        deleted.add(rowId);
+      }
+    }
+    return store;
+  }
+}
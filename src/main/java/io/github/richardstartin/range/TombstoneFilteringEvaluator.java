@@ -0,0 +1,37 @@
+package io.github.richardstartin.range;
+
+import org.roaringbitmap.RoaringBitmap;
+
+public class TombstoneFilteringEvaluator implements RangeEvaluator {
+
+  private final RangeEvaluator delegate;
+  private final Tombstones tombstones;
+
+  public TombstoneFilteringEvaluator(RangeEvaluator delegate, Tombstones tombstones) {
+    this.delegate = delegate;
+    this.tombstones = tombstones;
+  }
+
+  @Override
+  public RoaringBitmap between(long min, long max) {
+    RoaringBitmap deleted = tombstones.snapshot();
+    RoaringBitmap result = delegate.between(min, max);
+    return deleted.isEmpty() ? result : RoaringBitmap.andNot(result, deleted);
+  }
+
+  @Override
+  public Selection select(long min, long max) {
+    RoaringBitmap deleted = tombstones.snapshot();
+    Selection selection = delegate.select(min, max);
+    return deleted.isEmpty() ? selection : selection.andNot(Selection.of(deleted));
+  }
+
+  @Override
+  public int serializedSize() {
+    return delegate.serializedSize() + tombstones.snapshot().serializedSizeInBytes();
+  }
+
+  public Tombstones tombstones() {
+    return tombstones;
+  }
+}
@@ -0,0 +1,71 @@
+package io.github.richardstartin.range;
+
+import org.roaringbitmap.RoaringBitmap;
+
+public final class Tombstones {
+
+  private final RoaringBitmap pending = new RoaringBitmap();
+  private volatile RoaringBitmap deleted;
+  private volatile boolean dirty;
+  private volatile int cardinality;
+
+  public Tombstones() {
+    this(new RoaringBitmap());
+  }
+
+  public Tombstones(RoaringBitmap deleted) {
+    this.deleted = deleted;
+    this.cardinality = deleted.getCardinality();
+  }
+
+  public synchronized boolean delete(int row) {
+    if (deleted.contains(row) || !pending.checkedAdd(row)) {
+      return false;
+    }
+    cardinality++;
+    dirty = true;
+    return true;
+  }
+
+  public synchronized void delete(RoaringBitmap rows) {
+    RoaringBitmap merged = RoaringBitmap.or(deleted, rows);
+    merged.or(pending);
+    publish(merged);
+  }
+
+  public boolean isDeleted(int row) {
+    boolean dirty = this.dirty;
+    if (deleted.contains(row)) {
+      return true;
+    }
+    if (!dirty) {
+      return false;
+    }
+    synchronized (this) {
+      return pending.contains(row);
+    }
+  }
+
+  public RoaringBitmap snapshot() {
+    if (!dirty) {
+      return deleted;
+    }
+    synchronized (this) {
+      if (dirty) {
+        publish(RoaringBitmap.or(deleted, pending));
+      }
+      return deleted;
+    }
+  }
+
+  public int cardinality() {
+    return cardinality;
+  }
+
+  private void publish(RoaringBitmap merged) {
+    pending.clear();
+    cardinality = merged.getCardinality();
+    deleted = merged;
+    dirty = false;
+  }
+}
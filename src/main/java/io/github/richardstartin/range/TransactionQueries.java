@@ -0,0 +1,10 @@
+package io.github.richardstartin.range;
+
+import org.roaringbitmap.RoaringBitmap;
+
+public interface TransactionQueries {
+
+  long count(long begin, long end, long minQuantity, long maxPrice);
+
+  RoaringBitmap rows(long begin, long end, long minQuantity, long maxPrice);
+}
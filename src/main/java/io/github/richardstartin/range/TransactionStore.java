@@ -0,0 +1,381 @@
+package io.github.richardstartin.range;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.roaringbitmap.IntIterator;
+import org.roaringbitmap.RangeBitmap;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.RoaringBitmapWriter;
+
+public class TransactionStore implements AutoCloseable {
+
+  private final int segmentSize;
+  private final double compactionThreshold;
+  private final ExecutorService compactor;
+  private final boolean ownsCompactor;
+  private final Set<Segment> compacting = ConcurrentHashMap.newKeySet();
+
+  private volatile Segment[] segments = new Segment[0];
+
+  private long[] tailTimestamps;
+  private long[] tailQuantities;
+  private long[] tailPrices;
+  private Tombstones tailTombstones = new Tombstones();
+  private int tailSize;
+  private int tailFirstRowId;
+
+  public TransactionStore(int segmentSize, double compactionThreshold) {
+    this(segmentSize, compactionThreshold, Executors.newSingleThreadExecutor(task -> {
+      Thread thread = new Thread(task, "transaction-store-compactor");
+      thread.setDaemon(true);
+      return thread;
+    }), true);
+  }
+
+  public TransactionStore(int segmentSize, double compactionThreshold, ExecutorService compactor) {
+    this(segmentSize, compactionThreshold, compactor, false);
+  }
+
+  private TransactionStore(int segmentSize, double compactionThreshold, ExecutorService compactor,
+                           boolean ownsCompactor) {
+    this.segmentSize = segmentSize;
+    this.compactionThreshold = compactionThreshold;
+    this.compactor = compactor;
+    this.ownsCompactor = ownsCompactor;
+    this.tailTimestamps = new long[segmentSize];
+    this.tailQuantities = new long[segmentSize];
+    this.tailPrices = new long[segmentSize];
+  }
+
+  public synchronized int append(Transaction transaction) {
+    if (tailSize == segmentSize) {
+      seal();
+    }
+    tailTimestamps[tailSize] = transaction.getTimestamp();
+    tailQuantities[tailSize] = transaction.getQuantity();
+    tailPrices[tailSize] = transaction.getPrice();
+    return tailFirstRowId + tailSize++;
+  }
+
+  public synchronized void appendAll(List<Transaction> transactions) {
+    for (Transaction transaction : transactions) {
+      append(transaction);
+    }
+  }
+
+  public synchronized boolean delete(int rowId) {
+    if (rowId >= tailFirstRowId) {
+      int row = rowId - tailFirstRowId;
+      return row < tailSize && tailTombstones.delete(row);
+    }
+    Segment segment = segmentOf(rowId);
+    if (null == segment) {
+      return false;
+    }
+    int row = segment.localRow(rowId);
+    if (row < 0 || !segment.tombstones.delete(row)) {
+      return false;
+    }
+    if (segment.tombstoneRatio() > compactionThreshold && compacting.add(segment)) {
+      compactor.execute(() -> compact(segment));
+    }
+    return true;
+  }
+
+  public synchronized int update(int rowId, Transaction transaction) {
+    if (!delete(rowId)) {
+      throw new IllegalArgumentException("row " + rowId + " is not live");
+    }
+    return append(transaction);
+  }
+
+  public long count(long begin, long end, long minQuantity, long maxPrice) {
+    Snapshot snapshot = snapshot();
+    long count = 0;
+    for (int i = 0; i < snapshot.tailSize; i++) {
+      if (snapshot.matches(i, begin, end, minQuantity, maxPrice)) {
+        count++;
+      }
+    }
+    for (Segment segment : snapshot.segments) {
+      count += segment.count(begin, end, minQuantity, maxPrice);
+    }
+    return count;
+  }
+
+  public RoaringBitmap find(long begin, long end, long minQuantity, long maxPrice) {
+    Snapshot snapshot = snapshot();
+    RoaringBitmap result = new RoaringBitmap();
+    for (int i = 0; i < snapshot.tailSize; i++) {
+      if (snapshot.matches(i, begin, end, minQuantity, maxPrice)) {
+        result.add(snapshot.tailFirstRowId + i);
+      }
+    }
+    for (Segment segment : snapshot.segments) {
+      result.or(segment.find(begin, end, minQuantity, maxPrice));
+    }
+    return result;
+  }
+
+  public int compact() {
+    int rows = 0;
+    for (Segment segment : segments) {
+      if (segment.tombstoneRatio() > compactionThreshold && compacting.add(segment)) {
+        rows += segment.rows;
+        compact(segment);
+      }
+    }
+    return rows;
+  }
+
+  public double tombstoneRatio() {
+    long rows;
+    long deleted;
+    Segment[] segments;
+    synchronized (this) {
+      segments = this.segments;
+      rows = tailSize;
+      deleted = tailTombstones.cardinality();
+    }
+    for (Segment segment : segments) {
+      rows += segment.rows;
+      deleted += segment.tombstones.cardinality();
+    }
+    return rows == 0 ? 0 : (double) deleted / rows;
+  }
+
+  @Override
+  public void close() {
+    if (ownsCompactor) {
+      compactor.shutdown();
+    }
+  }
+
+  private synchronized Snapshot snapshot() {
+    return new Snapshot(segments, tailTimestamps, tailQuantities, tailPrices, tailSize, tailFirstRowId,
+        tailTombstones.snapshot());
+  }
+
+  private void seal() {
+    Segment segment = new Segment(tailFirstRowId, tailFirstRowId + tailSize, null, tailTimestamps, tailQuantities, tailPrices,
+        tailSize, tailTombstones);
+    Segment[] sealed = Arrays.copyOf(segments, segments.length + 1);
+    sealed[segments.length] = segment;
+    segments = sealed;
+    tailFirstRowId += tailSize;
+    tailTimestamps = new long[segmentSize];
+    tailQuantities = new long[segmentSize];
+    tailPrices = new long[segmentSize];
+    tailTombstones = new Tombstones();
+    tailSize = 0;
+  }
+
+  private Segment segmentOf(int rowId) {
+    Segment[] segments = this.segments;
+    int low = 0;
+    int high = segments.length - 1;
+    while (low <= high) {
+      int mid = (low + high) >>> 1;
+      Segment segment = segments[mid];
+      if (rowId < segment.firstRowId) {
+        high = mid - 1;
+      } else if (rowId >= segment.endRowId) {
+        low = mid + 1;
+      } else {
+        return segment;
+      }
+    }
+    return null;
+  }
+
+  private void compact(Segment segment) {
+    try {
+      RoaringBitmap deleted = segment.tombstones.snapshot();
+      Segment compacted = segment.compact(deleted);
+      synchronized (this) {
+        RoaringBitmap missed = RoaringBitmap.andNot(segment.tombstones.snapshot(), deleted);
+        if (!missed.isEmpty()) {
+          RoaringBitmap remapped = new RoaringBitmap();
+          missed.forEach((int row) -> remapped.add(compacted.localRow(segment.rowId(row))));
+          compacted.tombstones.delete(remapped);
+        }
+        Segment[] replaced = segments.clone();
+        for (int i = 0; i < replaced.length; i++) {
+          if (replaced[i] == segment) {
+            replaced[i] = compacted;
+            break;
+          }
+        }
+        segments = replaced;
+      }
+    } finally {
+      compacting.remove(segment);
+    }
+  }
+
+  private static final class Snapshot {
+
+    final Segment[] segments;
+    final int tailSize;
+    final int tailFirstRowId;
+
+    private final long[] tailTimestamps;
+    private final long[] tailQuantities;
+    private final long[] tailPrices;
+    private final RoaringBitmap tailDeleted;
+
+    Snapshot(Segment[] segments, long[] tailTimestamps, long[] tailQuantities, long[] tailPrices,
+             int tailSize, int tailFirstRowId, RoaringBitmap tailDeleted) {
+      this.segments = segments;
+      this.tailTimestamps = tailTimestamps;
+      this.tailQuantities = tailQuantities;
+      this.tailPrices = tailPrices;
+      this.tailSize = tailSize;
+      this.tailFirstRowId = tailFirstRowId;
+      this.tailDeleted = tailDeleted;
+    }
+
+    boolean matches(int row, long begin, long end, long minQuantity, long maxPrice) {
+      long timestamp = tailTimestamps[row];
+      return timestamp >= begin && timestamp <= end
+          && tailQuantities[row] >= minQuantity && tailPrices[row] <= maxPrice
+          && !tailDeleted.contains(row);
+    }
+  }
+
+  private static final class Segment {
+
+    final int firstRowId;
+    final int endRowId;
+    final int[] rowIds;
+    final int rows;
+    final Tombstones tombstones;
+
+    private final long[] timestamps;
+    private final long[] quantities;
+    private final long[] prices;
+    private final long minTime;
+    private final long maxTime;
+    private final long minQuantity;
+    private final long maxQuantity;
+    private final long minPrice;
+    private final RangeBitmap timestampIndex;
+    private final RangeBitmap quantityIndex;
+    private final RangeBitmap priceIndex;
+
+    Segment(int firstRowId, int endRowId, int[] rowIds, long[] timestamps, long[] quantities, long[] prices,
+            int rows, Tombstones tombstones) {
+      this.firstRowId = firstRowId;
+      this.endRowId = endRowId;
+      this.rowIds = rowIds;
+      this.rows = rows;
+      this.tombstones = tombstones;
+      this.timestamps = Arrays.copyOf(timestamps, rows);
+      this.quantities = Arrays.copyOf(quantities, rows);
+      this.prices = Arrays.copyOf(prices, rows);
+      long minTime = Long.MAX_VALUE;
+      long maxTime = Long.MIN_VALUE;
+      long minQuantity = Long.MAX_VALUE;
+      long maxQuantity = Long.MIN_VALUE;
+      long minPrice = Long.MAX_VALUE;
+      long maxPrice = Long.MIN_VALUE;
+      for (int i = 0; i < rows; i++) {
+        minTime = Math.min(minTime, timestamps[i]);
+        maxTime = Math.max(maxTime, timestamps[i]);
+        minQuantity = Math.min(minQuantity, quantities[i]);
+        maxQuantity = Math.max(maxQuantity, quantities[i]);
+        minPrice = Math.min(minPrice, prices[i]);
+        maxPrice = Math.max(maxPrice, prices[i]);
+      }
+      var timestampAppender = RangeBitmap.appender(Math.max(0, maxTime - minTime));
+      var qtyAppender = RangeBitmap.appender(Math.max(0, maxQuantity - minQuantity));
+      var priceAppender = RangeBitmap.appender(Math.max(0, maxPrice - minPrice));
+      for (int i = 0; i < rows; i++) {
+        timestampAppender.add(timestamps[i] - minTime);
+        qtyAppender.add(quantities[i] - minQuantity);
+        priceAppender.add(prices[i] - minPrice);
+      }
+      this.minTime = minTime;
+      this.maxTime = maxTime;
+      this.minQuantity = minQuantity;
+      this.maxQuantity = maxQuantity;
+      this.minPrice = minPrice;
+      this.timestampIndex = timestampAppender.build();
+      this.quantityIndex = qtyAppender.build();
+      this.priceIndex = priceAppender.build();
+    }
+
+    int rowId(int row) {
+      return null == rowIds ? firstRowId + row : rowIds[row];
+    }
+
+    int localRow(int rowId) {
+      if (null == rowIds) {
+        return rowId - firstRowId;
+      }
+      int row = Arrays.binarySearch(rowIds, rowId);
+      return row < 0 ? -1 : row;
+    }
+
+    double tombstoneRatio() {
+      return (double) tombstones.cardinality() / rows;
+    }
+
+    long count(long begin, long end, long minQuantity, long maxPrice) {
+      RoaringBitmap context = liveMatchesQuantity(begin, end, minQuantity, maxPrice);
+      return null == context ? 0 : priceIndex.lteCardinality(maxPrice - minPrice, context);
+    }
+
+    RoaringBitmap find(long begin, long end, long minQuantity, long maxPrice) {
+      RoaringBitmap context = liveMatchesQuantity(begin, end, minQuantity, maxPrice);
+      if (null == context) {
+        return new RoaringBitmap();
+      }
+      RoaringBitmap matches = priceIndex.lte(maxPrice - minPrice, context);
+      if (null == rowIds) {
+        return RoaringBitmap.addOffset(matches, firstRowId);
+      }
+      RoaringBitmapWriter<RoaringBitmap> writer = RoaringBitmapWriter.writer().get();
+      matches.forEach((int row) -> writer.add(rowIds[row]));
+      return writer.get();
+    }
+
+    private RoaringBitmap liveMatchesQuantity(long begin, long end, long minQuantity, long maxPrice) {
+      if (end < minTime || begin > maxTime || begin > end || minQuantity > maxQuantity || maxPrice < minPrice) {
+        return null;
+      }
+      long first = Math.max(begin, minTime) - minTime;
+      long last = Math.min(end, maxTime) - minTime;
+      RoaringBitmap inTimeRange = timestampIndex.between(first, last);
+      RoaringBitmap deleted = tombstones.snapshot();
+      if (!deleted.isEmpty()) {
+        inTimeRange.andNot(deleted);
+      }
+      return minQuantity <= this.minQuantity
+          ? inTimeRange
+          : quantityIndex.gte(minQuantity - this.minQuantity, inTimeRange);
+    }
+
+    Segment compact(RoaringBitmap deleted) {
+      int live = rows - deleted.getCardinality();
+      int[] liveRowIds = new int[live];
+      long[] liveTimestamps = new long[live];
+      long[] liveQuantities = new long[live];
+      long[] livePrices = new long[live];
+      IntIterator it = RoaringBitmap.flip(deleted, 0L, rows).getIntIterator();
+      for (int i = 0; it.hasNext(); i++) {
+        int row = it.next();
+        liveRowIds[i] = rowId(row);
+        liveTimestamps[i] = timestamps[row];
+        liveQuantities[i] = quantities[row];
+        livePrices[i] = prices[row];
+      }
+      return new Segment(firstRowId, endRowId, liveRowIds, liveTimestamps, liveQuantities, livePrices, live,
+          new Tombstones());
+    }
+  }
+}
@@ -30,6 +30,10 @@ public class Transactions {
 
   List<Transaction> transactions;
 
+  long[] timestamps;
+  long[] quantities;
+  long[] prices;
+
   RangeBitmap timestampIndex;
   RangeBitmap quantityIndex;
   RangeBitmap priceIndex;
@@ -50,8 +54,8 @@ public class Transactions {
       time += nextTransactionTime();
     }
 
-    minTimeThreshold = transactions.get((size * 5) / 10).timestamp;
-    maxTimeThreshold = transactions.get((size * 6) / 10).timestamp;
+    minTimeThreshold = transactions.get((int) ((size * 5L) / 10)).timestamp;
+    maxTimeThreshold = transactions.get((int) ((size * 6L) / 10)).timestamp;
     minQuantityThreshold = (minQuantity + transactions.get(size / 2).quantity) / 2;
     maxPriceThreshold = (minPrice + transactions.get(size / 2).quantity) / 2;
 
@@ -89,6 +93,17 @@ public class Transactions {
     this.minPrice = minPrice;
   }
 
+  void columns() {
+    timestamps = new long[size];
+    quantities = new long[size];
+    prices = new long[size];
+    for (int i = 0; i < size; i++) {
+      timestamps[i] = transactions.get(i).getTimestamp();
+      quantities[i] = transactions.get(i).getQuantity();
+      prices[i] = transactions.get(i).getPrice();
+    }
+  }
+
   private long nextTransactionTime() {
     return (long) -(Math.log(random.nextDouble()) / 0.95);
   }
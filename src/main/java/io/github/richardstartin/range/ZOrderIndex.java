@@ -0,0 +1,189 @@
+package io.github.richardstartin.range;
+
+import java.util.Comparator;
+import java.util.stream.IntStream;
+import org.roaringbitmap.RoaringBitmap;
+
+public class ZOrderIndex {
+
+  private static final int BITS_PER_DIMENSION = 21;
+
+  private final int blockSize;
+  private final int[] rowIds;
+  private final long[] xs;
+  private final long[] ys;
+  private final long[] zs;
+  private final long[] blockMinX;
+  private final long[] blockMaxX;
+  private final long[] blockMinY;
+  private final long[] blockMaxY;
+  private final long[] blockMinZ;
+  private final long[] blockMaxZ;
+
+  public ZOrderIndex(long[] x, long[] y, long[] z, int blockSize) {
+    this.blockSize = blockSize;
+    int size = x.length;
+    long[] codes = new long[size];
+    Quantizer qx = new Quantizer(x);
+    Quantizer qy = new Quantizer(y);
+    Quantizer qz = new Quantizer(z);
+    for (int i = 0; i < size; i++) {
+      codes[i] = spread(qx.quantize(x[i]))
+          | (spread(qy.quantize(y[i])) << 1)
+          | (spread(qz.quantize(z[i])) << 2);
+    }
+    this.rowIds = IntStream.range(0, size)
+        .boxed()
+        .sorted(Comparator.comparingLong(i -> codes[i]))
+        .mapToInt(Integer::intValue)
+        .toArray();
+    this.xs = new long[size];
+    this.ys = new long[size];
+    this.zs = new long[size];
+    for (int i = 0; i < size; i++) {
+      xs[i] = x[rowIds[i]];
+      ys[i] = y[rowIds[i]];
+      zs[i] = z[rowIds[i]];
+    }
+    int blocks = (size + blockSize - 1) / blockSize;
+    this.blockMinX = new long[blocks];
+    this.blockMaxX = new long[blocks];
+    this.blockMinY = new long[blocks];
+    this.blockMaxY = new long[blocks];
+    this.blockMinZ = new long[blocks];
+    this.blockMaxZ = new long[blocks];
+    for (int block = 0; block < blocks; block++) {
+      int from = block * blockSize;
+      int to = Math.min(size, from + blockSize);
+      blockMinX[block] = min(xs, from, to);
+      blockMaxX[block] = max(xs, from, to);
+      blockMinY[block] = min(ys, from, to);
+      blockMaxY[block] = max(ys, from, to);
+      blockMinZ[block] = min(zs, from, to);
+      blockMaxZ[block] = max(zs, from, to);
+    }
+  }
+
+  public long count(long minX, long maxX, long minY, long maxY, long minZ, long maxZ) {
+    if (empty(minX, maxX, minY, maxY, minZ, maxZ)) {
+      return 0;
+    }
+    long count = 0;
+    for (int block = 0; block < blockMinX.length; block++) {
+      if (disjoint(block, minX, maxX, minY, maxY, minZ, maxZ)) {
+        continue;
+      }
+      int from = block * blockSize;
+      int to = Math.min(xs.length, from + blockSize);
+      if (contained(block, minX, maxX, minY, maxY, minZ, maxZ)) {
+        count += to - from;
+      } else {
+        for (int i = from; i < to; i++) {
+          count += matches(i, minX, maxX, minY, maxY, minZ, maxZ);
+        }
+      }
+    }
+    return count;
+  }
+
+  public RoaringBitmap rows(long minX, long maxX, long minY, long maxY, long minZ, long maxZ) {
+    RoaringBitmap result = new RoaringBitmap();
+    if (empty(minX, maxX, minY, maxY, minZ, maxZ)) {
+      return result;
+    }
+    for (int block = 0; block < blockMinX.length; block++) {
+      if (disjoint(block, minX, maxX, minY, maxY, minZ, maxZ)) {
+        continue;
+      }
+      int from = block * blockSize;
+      int to = Math.min(xs.length, from + blockSize);
+      if (contained(block, minX, maxX, minY, maxY, minZ, maxZ)) {
+        for (int i = from; i < to; i++) {
+          result.add(rowIds[i]);
+        }
+      } else {
+        for (int i = from; i < to; i++) {
+          if (matches(i, minX, maxX, minY, maxY, minZ, maxZ) != 0) {
+            result.add(rowIds[i]);
+          }
+        }
+      }
+    }
+    return result;
+  }
+
+  public int serializedSize() {
+    return rowIds.length * (Integer.BYTES + 3 * Long.BYTES) + blockMinX.length * 6 * Long.BYTES;
+  }
+
+  private static boolean empty(long minX, long maxX, long minY, long maxY, long minZ, long maxZ) {
+    return minX > maxX || minY > maxY || minZ > maxZ;
+  }
+
+  private boolean disjoint(int block, long minX, long maxX, long minY, long maxY, long minZ, long maxZ) {
+    return blockMaxX[block] < minX || blockMinX[block] > maxX
+        || blockMaxY[block] < minY || blockMinY[block] > maxY
+        || blockMaxZ[block] < minZ || blockMinZ[block] > maxZ;
+  }
+
+  private boolean contained(int block, long minX, long maxX, long minY, long maxY, long minZ, long maxZ) {
+    return blockMinX[block] >= minX && blockMaxX[block] <= maxX
+        && blockMinY[block] >= minY && blockMaxY[block] <= maxY
+        && blockMinZ[block] >= minZ && blockMaxZ[block] <= maxZ;
+  }
+
+  private int matches(int i, long minX, long maxX, long minY, long maxY, long minZ, long maxZ) {
+    return inRange(xs[i], minX, maxX) & inRange(ys[i], minY, maxY) & inRange(zs[i], minZ, maxZ);
+  }
+
+  private static int inRange(long value, long min, long max) {
+    return (value - min) + Long.MIN_VALUE <= (max - min) + Long.MIN_VALUE ? 1 : 0;
+  }
+
+  private static long min(long[] values, int from, int to) {
+    long min = Long.MAX_VALUE;
+    for (int i = from; i < to; i++) {
+      min = Math.min(min, values[i]);
+    }
+    return min;
+  }
+
+  private static long max(long[] values, int from, int to) {
+    long max = Long.MIN_VALUE;
+    for (int i = from; i < to; i++) {
+      max = Math.max(max, values[i]);
+    }
+    return max;
+  }
+
+  private static long spread(long value) {
+    long x = value & 0x1FFFFFL;
+    x = (x | x << 32) & 0x1F00000000FFFFL;
+    x = (x | x << 16) & 0x1F0000FF0000FFL;
+    x = (x | x << 8) & 0x100F00F00F00F00FL;
+    x = (x | x << 4) & 0x10C30C30C30C30C3L;
+    x = (x | x << 2) & 0x1249249249249249L;
+    return x;
+  }
+
+  private static final class Quantizer {
+
+    private final long min;
+    private final int shift;
+
+    private Quantizer(long[] values) {
+      long min = Long.MAX_VALUE;
+      long max = Long.MIN_VALUE;
+      for (long value : values) {
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+      }
+      this.min = min;
+      this.shift = Math.max(0, 64 - Long.numberOfLeadingZeros(max - min) - BITS_PER_DIMENSION);
+    }
+
+    long quantize(long value) {
+      return (value - min) >>> shift;
+    }
+  }
+}
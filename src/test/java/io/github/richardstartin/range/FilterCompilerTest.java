@@ -0,0 +1,96 @@
+package io.github.richardstartin.range;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.SplittableRandom;
+import java.util.function.IntPredicate;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+class FilterCompilerTest {
+
+  private static final int SIZE = 10_000;
+  private static final int T = 0;
+  private static final int Q = 1;
+  private static final int P = 2;
+
+  @Test
+  void compiledFiltersMatchScan() {
+    SplittableRandom random = new SplittableRandom(42);
+    for (int dataset = 0; dataset < 3; dataset++) {
+      long[] t = new long[SIZE];
+      long[] q = new long[SIZE];
+      long[] p = new long[SIZE];
+      for (int i = 0; i < SIZE; i++) {
+        t[i] = 1000 + 2L * i;
+        q[i] = random.nextInt(1, 10_000);
+        p[i] = random.nextLong(-500_000, 1_000_000);
+      }
+      FilterCompiler compiler = new FilterCompiler(t, q, p);
+      for (int k = 0; k < 300; k++) {
+        long t0 = random.nextLong(0, 25_000);
+        long t1 = t0 + random.nextLong(0, 15_000);
+        long q0 = random.nextInt(10_000);
+        long q1 = q0 + random.nextInt(10_000);
+        long p0 = random.nextLong(-600_000, 1_100_000);
+        Filter filter;
+        IntPredicate expected;
+        switch (k % 6) {
+          case 0:
+            filter = Filter.and(Filter.between(T, t0, t1), Filter.gte(Q, q0), Filter.lte(P, p0));
+            expected = i -> t[i] >= t0 && t[i] <= t1 && q[i] >= q0 && p[i] <= p0;
+            break;
+          case 1:
+            filter = Filter.or(Filter.and(Filter.between(T, t0, t1), Filter.gte(Q, q0)), Filter.lte(P, p0));
+            expected = i -> (t[i] >= t0 && t[i] <= t1 && q[i] >= q0) || p[i] <= p0;
+            break;
+          case 2:
+            filter = Filter.and(Filter.or(Filter.gte(Q, q0), Filter.lte(P, p0)), Filter.between(T, t0, t1));
+            expected = i -> (q[i] >= q0 || p[i] <= p0) && t[i] >= t0 && t[i] <= t1;
+            break;
+          case 3:
+            filter = Filter.or(Filter.between(Q, q0, q1), Filter.and(Filter.lte(P, p0), Filter.or(
+                Filter.between(T, t0, t1), Filter.gte(Q, q1))));
+            expected = i -> (q[i] >= q0 && q[i] <= q1) || (p[i] <= p0 && ((t[i] >= t0 && t[i] <= t1) || q[i] >= q1));
+            break;
+          case 4:
+            filter = Filter.between(P, p0, p0 + 100_000);
+            expected = i -> p[i] >= p0 && p[i] <= p0 + 100_000;
+            break;
+          default:
+            filter = Filter.or(Filter.lte(T, t0), Filter.gte(T, t1));
+            expected = i -> t[i] <= t0 || t[i] >= t1;
+            break;
+        }
+        int from = random.nextInt(SIZE);
+        int to = random.nextInt(from, SIZE + 1);
+        RoaringBitmap rows = new RoaringBitmap();
+        for (int i = from; i < to; i++) {
+          if (expected.test(i)) {
+            rows.add(i);
+          }
+        }
+        FilterCompiler.CompiledFilter compiled = compiler.compile(filter);
+        String query = filter.shape() + " over [" + from + ", " + to + ") of dataset " + dataset;
+        assertEquals(rows, compiled.select(filter.bounds(), from, to), "select " + query);
+        assertEquals(rows.getLongCardinality(), compiled.count(filter.bounds(), from, to), "count " + query);
+      }
+    }
+  }
+
+  @Test
+  void rejectsBoundsThatDoNotMatchTheShape() {
+    long[] column = new long[16];
+    FilterCompiler compiler = new FilterCompiler(column, column);
+    Filter filter = Filter.and(Filter.between(0, 0, 10), Filter.gte(1, 0));
+    FilterCompiler.CompiledFilter compiled = compiler.compile(filter);
+    assertThrows(IllegalArgumentException.class, () -> compiled.count(new long[2], 0, 16));
+    assertThrows(IllegalArgumentException.class, () -> compiled.select(new long[6], 0, 16));
+    long[] empty = filter.bounds();
+    empty[0] = 600;
+    empty[1] = 400;
+    assertThrows(IllegalArgumentException.class, () -> compiled.count(empty, 0, 16));
+    assertThrows(IllegalArgumentException.class, () -> Filter.between(0, 5, 4));
+  }
+}
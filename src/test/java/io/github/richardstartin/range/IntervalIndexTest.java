@@ -1,5 +1,64 @@
 package io.github.richardstartin.range;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.SplittableRandom;
+import java.util.function.LongSupplier;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.roaringbitmap.RoaringBitmap;
+
 class IntervalIndexTest {
 
-}
\ No newline at end of file
+  private static final int SIZE = 10_000;
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 7, 64, 1024, SIZE + 1})
+  void stabMatchesScan(int checkpointInterval) {
+    long[] starts = new long[SIZE];
+    long[] ends = new long[SIZE];
+    generate(starts, ends);
+    IntervalIndex index = new IntervalIndex(starts, ends, checkpointInterval);
+    SplittableRandom random = new SplittableRandom(1);
+    for (int i = 0; i < 1000; i++) {
+      long time = random.nextLong(-1000, 120_000);
+      RoaringBitmap expected = new RoaringBitmap();
+      for (int row = 0; row < SIZE; row++) {
+        if (starts[row] <= time && ends[row] >= time) {
+          expected.add(row);
+        }
+      }
+      assertEquals(expected, index.stab(time), "stab(" + time + ")");
+    }
+  }
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 7, 64, 1024, SIZE + 1})
+  void overlapMatchesScan(int checkpointInterval) {
+    long[] starts = new long[SIZE];
+    long[] ends = new long[SIZE];
+    generate(starts, ends);
+    IntervalIndex index = new IntervalIndex(starts, ends, checkpointInterval);
+    SplittableRandom random = new SplittableRandom(2);
+    for (int i = 0; i < 1000; i++) {
+      long begin = random.nextLong(-1000, 120_000);
+      long end = begin + random.nextLong(-10, 5000);
+      RoaringBitmap expected = new RoaringBitmap();
+      for (int row = 0; row < SIZE; row++) {
+        if (begin <= end && starts[row] <= end && ends[row] >= begin) {
+          expected.add(row);
+        }
+      }
+      assertEquals(expected, index.overlap(begin, end), "overlap(" + begin + ", " + end + ")");
+    }
+  }
+
+  private static void generate(long[] starts, long[] ends) {
+    SplittableRandom random = new SplittableRandom(42);
+    LongSupplier durations = Distribution.parse(42, "EXP(0.001)");
+    for (int i = 0; i < starts.length; i++) {
+      starts[i] = random.nextLong(0, 100_000);
+      ends[i] = starts[i] + durations.getAsLong();
+    }
+  }
+}
@@ -0,0 +1,89 @@
+package io.github.richardstartin.range;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.math.BigDecimal;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+class OrderPreservingEncodingTest {
+
+  private static final int SIZE = 5_000;
+
+  @Test
+  void signedLongsBetweenMatchesScan() {
+    long[] values = {-5, -1, 0, 3, Long.MIN_VALUE};
+    var encoding = OrderPreservingEncoding.SignedLongs.of(values);
+    RangeEvaluator index = encoding.index(encoding.encode(values));
+    assertEquals(RoaringBitmap.bitmapOf(0, 1, 2), encoding.between(index, -5, 0), "between(-5, 0)");
+    assertEquals(RoaringBitmap.bitmapOf(4), encoding.between(index, Long.MIN_VALUE, -6), "between(MIN, -6)");
+    assertEquals(new RoaringBitmap(), encoding.between(index, 1, -1), "between(1, -1)");
+
+    long[] random = new long[SIZE];
+    SplittableRandom rng = new SplittableRandom(42);
+    for (int i = 0; i < SIZE; i++) {
+      random[i] = rng.nextLong(-1_000_000, 1_000_000);
+    }
+    var randomEncoding = OrderPreservingEncoding.SignedLongs.of(random);
+    RangeEvaluator randomIndex = randomEncoding.index(randomEncoding.encode(random));
+    for (int q = 0; q < 200; q++) {
+      long min = rng.nextLong(-1_100_000, 1_100_000);
+      long max = min + rng.nextLong(-1000, 500_000);
+      RoaringBitmap expected = new RoaringBitmap();
+      for (int i = 0; i < SIZE; i++) {
+        if (random[i] >= min && random[i] <= max) {
+          expected.add(i);
+        }
+      }
+      assertEquals(expected, randomEncoding.between(randomIndex, min, max), "between(" + min + ", " + max + ")");
+    }
+  }
+
+  @Test
+  void doublesBetweenMatchesScan() {
+    SplittableRandom rng = new SplittableRandom(43);
+    double[] values = new double[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      values[i] = rng.nextLong(-100_000, 100_000) / 100.0;
+    }
+    values[0] = -0.0;
+    values[1] = 0.0;
+    var encoding = OrderPreservingEncoding.Doubles.of(values);
+    RangeEvaluator index = encoding.index(encoding.encode(values));
+    for (int q = 0; q < 200; q++) {
+      double min = rng.nextLong(-120_000, 120_000) / 100.0;
+      double max = min + rng.nextLong(-100, 50_000) / 100.0;
+      RoaringBitmap expected = new RoaringBitmap();
+      for (int i = 0; i < SIZE; i++) {
+        if (values[i] >= min && values[i] <= max) {
+          expected.add(i);
+        }
+      }
+      assertEquals(expected, encoding.between(index, min, max), "between(" + min + ", " + max + ")");
+    }
+  }
+
+  @Test
+  void decimalsBetweenMatchesScan() {
+    SplittableRandom rng = new SplittableRandom(44);
+    long[] unscaled = new long[SIZE];
+    for (int i = 0; i < SIZE; i++) {
+      unscaled[i] = rng.nextLong(-100_000, 100_000);
+    }
+    var encoding = OrderPreservingEncoding.Decimals.of(unscaled, 2);
+    RangeEvaluator index = encoding.index(encoding.encodeUnscaled(unscaled));
+    for (int q = 0; q < 200; q++) {
+      BigDecimal min = BigDecimal.valueOf(rng.nextLong(-1_200_000, 1_200_000), 3);
+      BigDecimal max = min.add(BigDecimal.valueOf(rng.nextLong(-1000, 500_000), 3));
+      RoaringBitmap expected = new RoaringBitmap();
+      for (int i = 0; i < SIZE; i++) {
+        BigDecimal value = BigDecimal.valueOf(unscaled[i], 2);
+        if (value.compareTo(min) >= 0 && value.compareTo(max) <= 0) {
+          expected.add(i);
+        }
+      }
+      assertEquals(expected, encoding.between(index, min, max), "between(" + min + ", " + max + ")");
+    }
+  }
+}
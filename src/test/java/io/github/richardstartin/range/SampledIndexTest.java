@@ -0,0 +1,95 @@
+package io.github.richardstartin.range;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+class SampledIndexTest {
+
+  private static final int SIZE = 20_000;
+
+  private final long[] timestamps = new long[SIZE];
+  private final long[] prices = new long[SIZE];
+  private final long[] quantities = new long[SIZE];
+
+  SampledIndexTest() {
+    SplittableRandom random = new SplittableRandom(42);
+    long time = 1_000_000;
+    for (int i = 0; i < SIZE; i++) {
+      timestamps[i] = time += random.nextInt(3);
+      prices[i] = random.nextLong(100, 10_000);
+      quantities[i] = random.nextInt(1, 1000);
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(SampledIndex.Sampling.class)
+  void fullSampleMatchesScan(SampledIndex.Sampling sampling) {
+    SampledIndex index = new SampledIndex(timestamps, prices, quantities, 1, sampling, 42);
+    SplittableRandom random = new SplittableRandom(1);
+    for (int i = 0; i < 1000; i++) {
+      long[] query = randomQuery(random);
+      long expected = exact(query);
+      String message = "estimate" + Arrays.toString(query);
+      assertEquals(expected, index.estimate(query[0], query[1], query[2], query[3]).count(), message);
+    }
+  }
+
+  @ParameterizedTest
+  @EnumSource(SampledIndex.Sampling.class)
+  void intervalsCoverExactCounts(SampledIndex.Sampling sampling) {
+    SampledIndex index = new SampledIndex(timestamps, prices, quantities, 0.05, sampling, 42);
+    SplittableRandom random = new SplittableRandom(2);
+    int queries = 1000;
+    int covered = 0;
+    for (int i = 0; i < queries; i++) {
+      long[] query = randomQuery(random);
+      long expected = exact(query);
+      SampledIndex.Estimate estimate = index.estimate(query[0], query[1], query[2], query[3]);
+      if (estimate.lower() <= expected && expected <= estimate.upper()) {
+        covered++;
+      }
+      SampledIndex.Estimate fallback = index.count(query[0], query[1], query[2], query[3], 0, () -> expected);
+      assertTrue(fallback.isExact() || estimate.relativeHalfWidth() == 0, "no fallback at zero tolerance");
+      if (fallback.isExact()) {
+        assertEquals(expected, fallback.count(), "fallback" + Arrays.toString(query));
+      }
+    }
+    assertTrue(covered >= 0.9 * queries, covered + " of " + queries + " intervals covered the exact count");
+  }
+
+  @ParameterizedTest
+  @EnumSource(SampledIndex.Sampling.class)
+  void windowsOutsideTheDataAreEmpty(SampledIndex.Sampling sampling) {
+    SampledIndex index = new SampledIndex(timestamps, prices, quantities, 0.05, sampling, 42);
+    long last = timestamps[SIZE - 1];
+    assertEquals(0, index.estimate(last + 100_000, last + 200_000, 0, Long.MAX_VALUE).count(), "after the data");
+    assertEquals(0, index.estimate(0, timestamps[0] - 1, 0, Long.MAX_VALUE).count(), "before the data");
+    assertEquals(0, index.estimate(last, timestamps[0], 0, Long.MAX_VALUE).count(), "begin > end");
+    assertEquals(0, index.estimate(0, Long.MAX_VALUE, 1_000_000, Long.MAX_VALUE).count(), "quantity above the data");
+    assertEquals(0, index.estimate(0, Long.MAX_VALUE, 0, 0).count(), "price below the data");
+  }
+
+  private long[] randomQuery(SplittableRandom random) {
+    long begin = random.nextLong(timestamps[0] - 1000, timestamps[SIZE - 1] + 1000);
+    long end = begin + random.nextLong(-10, 30_000);
+    long minQuantity = random.nextLong(0, 1100);
+    long maxPrice = random.nextLong(0, 11_000);
+    return new long[] {begin, end, minQuantity, maxPrice};
+  }
+
+  private long exact(long[] query) {
+    long count = 0;
+    for (int i = 0; i < SIZE; i++) {
+      if (timestamps[i] >= query[0] && timestamps[i] <= query[1]
+          && quantities[i] >= query[2] && prices[i] <= query[3]) {
+        count++;
+      }
+    }
+    return count;
+  }
+}
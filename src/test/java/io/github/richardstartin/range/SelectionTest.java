@@ -0,0 +1,71 @@
+package io.github.richardstartin.range;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.roaringbitmap.RoaringBitmap;
+import org.roaringbitmap.RoaringBitmapWriter;
+
+class SelectionTest {
+
+  private static final int ROWS = 200_000;
+
+  @ParameterizedTest
+  @ValueSource(doubles = {0, 0.001, 0.1, 0.5, 0.9, 0.999, 1})
+  void algebraMatchesMaterializedBitmaps(double density) {
+    SplittableRandom random = new SplittableRandom(42);
+    for (int i = 0; i < 10; i++) {
+      RoaringBitmap left = random(random, density);
+      RoaringBitmap right = random(random, random.nextDouble());
+      for (Selection x : forms(left)) {
+        for (Selection y : forms(right)) {
+          String operands = (x.isComplement() ? "complement" : "plain")
+              + " with " + (y.isComplement() ? "complement" : "plain");
+          assertMatches(RoaringBitmap.and(left, right), x.and(y), "and of " + operands);
+          assertMatches(RoaringBitmap.or(left, right), x.or(y), "or of " + operands);
+          assertMatches(RoaringBitmap.andNot(left, right), x.andNot(y), "andNot of " + operands);
+          assertEquals(RoaringBitmap.andCardinality(left, right), x.andCardinality(y), "andCardinality of " + operands);
+        }
+      }
+    }
+  }
+
+  @Test
+  void rejectsComplementsOverDifferentRows() {
+    Selection x = Selection.complementOf(RoaringBitmap.bitmapOf(1, 2, 3), 100);
+    Selection y = Selection.complementOf(RoaringBitmap.bitmapOf(2, 3, 4), 200);
+    assertThrows(IllegalArgumentException.class, () -> x.and(y));
+    assertThrows(IllegalArgumentException.class, () -> x.or(y));
+    assertThrows(IllegalArgumentException.class, () -> x.andNot(y));
+    assertThrows(IllegalArgumentException.class, () -> x.andCardinality(y));
+  }
+
+  private static Selection[] forms(RoaringBitmap bitmap) {
+    return new Selection[] {
+        Selection.of(bitmap),
+        Selection.complementOf(RoaringBitmap.flip(bitmap, 0L, ROWS), ROWS)
+    };
+  }
+
+  private static void assertMatches(RoaringBitmap expected, Selection actual, String message) {
+    assertEquals(expected, actual.toBitmap(), message);
+    assertEquals(expected.getLongCardinality(), actual.cardinality(), message + " cardinality");
+    RoaringBitmapWriter<RoaringBitmap> writer = RoaringBitmapWriter.writer().get();
+    actual.forEach(writer::add);
+    assertEquals(expected, writer.get(), message + " forEach");
+  }
+
+  private static RoaringBitmap random(SplittableRandom random, double density) {
+    RoaringBitmapWriter<RoaringBitmap> writer = RoaringBitmapWriter.writer().get();
+    for (int row = 0; row < ROWS; row++) {
+      if (random.nextDouble() < density) {
+        writer.add(row);
+      }
+    }
+    return writer.get();
+  }
+}
@@ -0,0 +1,49 @@
+package io.github.richardstartin.range;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.roaringbitmap.RoaringBitmap;
+
+class TimePartitionedIndexTest {
+
+  private static final int SIZE = 10_000;
+
+  @ParameterizedTest
+  @ValueSource(longs = {1, 60, 3600, 86_400, Long.MAX_VALUE})
+  void queriesMatchScan(long partitionSeconds) {
+    long[] timestamps = new long[SIZE];
+    long[] prices = new long[SIZE];
+    long[] quantities = new long[SIZE];
+    SplittableRandom random = new SplittableRandom(42);
+    long time = -50_000;
+    for (int i = 0; i < SIZE; i++) {
+      timestamps[i] = time += random.nextInt(20);
+      prices[i] = random.nextLong(100, 1000);
+      quantities[i] = random.nextInt(1, 100);
+    }
+    for (boolean parallel : new boolean[] {false, true}) {
+      TimePartitionedIndex index = new TimePartitionedIndex(timestamps, prices, quantities, partitionSeconds, parallel);
+      SplittableRandom queries = new SplittableRandom(1);
+      for (int i = 0; i < 500; i++) {
+        long begin = queries.nextInt(8) == 0 ? Long.MIN_VALUE : queries.nextLong(-60_000, time + 10_000);
+        long end = queries.nextInt(8) == 0 ? Long.MAX_VALUE
+            : (begin == Long.MIN_VALUE ? -60_000 : begin) + queries.nextLong(-100, 50_000);
+        long minQuantity = queries.nextLong(0, 110);
+        long maxPrice = queries.nextLong(50, 1100);
+        RoaringBitmap expected = new RoaringBitmap();
+        for (int row = 0; row < SIZE; row++) {
+          if (timestamps[row] >= begin && timestamps[row] <= end
+              && quantities[row] >= minQuantity && prices[row] <= maxPrice) {
+            expected.add(row);
+          }
+        }
+        String query = "(" + begin + ", " + end + ", " + minQuantity + ", " + maxPrice + "), parallel=" + parallel;
+        assertEquals(expected, index.rows(begin, end, minQuantity, maxPrice), "rows" + query);
+        assertEquals(expected.getLongCardinality(), index.count(begin, end, minQuantity, maxPrice), "count" + query);
+      }
+    }
+  }
+}
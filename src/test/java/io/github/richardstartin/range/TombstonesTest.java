@@ -0,0 +1,50 @@
+package io.github.richardstartin.range;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+class TombstonesTest {
+
+  @Test
+  void deletesMatchBitmap() {
+    SplittableRandom random = new SplittableRandom(42);
+    Tombstones tombstones = new Tombstones(RoaringBitmap.bitmapOf(1, 2, 3));
+    RoaringBitmap expected = RoaringBitmap.bitmapOf(1, 2, 3);
+    for (int i = 0; i < 10_000; i++) {
+      int row = random.nextInt(100_000);
+      if (random.nextInt(100) == 0) {
+        RoaringBitmap rows = RoaringBitmap.bitmapOf(row, row + 1, row + 70_000);
+        tombstones.delete(rows);
+        expected.or(rows);
+      } else {
+        assertEquals(expected.checkedAdd(row), tombstones.delete(row), "delete(" + row + ")");
+        assertFalse(tombstones.delete(row), "second delete(" + row + ")");
+      }
+      assertTrue(tombstones.isDeleted(row), "isDeleted(" + row + ")");
+      assertEquals(expected.getCardinality(), tombstones.cardinality(), "cardinality");
+      if (random.nextInt(10) == 0) {
+        assertEquals(expected, tombstones.snapshot(), "snapshot");
+      }
+    }
+    assertEquals(expected, tombstones.snapshot(), "snapshot");
+  }
+
+  @Test
+  void snapshotsAreNotModifiedByLaterDeletes() {
+    Tombstones tombstones = new Tombstones();
+    tombstones.delete(1);
+    RoaringBitmap first = tombstones.snapshot();
+    assertEquals(RoaringBitmap.bitmapOf(1), first);
+    tombstones.delete(2);
+    tombstones.delete(RoaringBitmap.bitmapOf(3, 4));
+    tombstones.delete(5);
+    assertEquals(RoaringBitmap.bitmapOf(1), first, "first snapshot");
+    assertEquals(RoaringBitmap.bitmapOf(1, 2, 3, 4, 5), tombstones.snapshot(), "second snapshot");
+    assertFalse(tombstones.isDeleted(6));
+  }
+}
@@ -0,0 +1,55 @@
+package io.github.richardstartin.range;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+class TransactionQueriesTest {
+
+  @Test
+  void queriesMatchScan() {
+    Transactions transactions = new Transactions();
+    transactions.size = 10_000;
+    transactions.minPrice = 100;
+    transactions.minQuantity = 1;
+    transactions.setup();
+    QueryMetrics metrics = new QueryMetrics(true, true);
+    TransactionQueries indexed = new IndexedTransactionQueries(transactions);
+    TransactionQueries instrumented = new InstrumentedTransactionQueries(indexed, metrics);
+    long minTime = transactions.transactions.get(0).getTimestamp();
+    long maxTime = transactions.transactions.get(transactions.size - 1).getTimestamp();
+    SplittableRandom random = new SplittableRandom(1);
+    long cardinality = 0;
+    int queries = 1000;
+    for (int i = 0; i < queries; i++) {
+      long begin = random.nextInt(10) == 0 ? Long.MIN_VALUE : random.nextLong(minTime - 1000, maxTime + 100_000);
+      long end = random.nextInt(10) == 0 ? Long.MAX_VALUE
+          : Math.max(begin, minTime - 1000) + random.nextLong(-10, 5000);
+      long minQuantity = random.nextLong(-10, 11_000);
+      long maxPrice = random.nextLong(-10, 1_100_000);
+      RoaringBitmap expected = new RoaringBitmap();
+      for (int row = 0; row < transactions.size; row++) {
+        Transaction transaction = transactions.transactions.get(row);
+        if (transaction.getTimestamp() >= begin && transaction.getTimestamp() <= end
+            && transaction.getQuantity() >= minQuantity && transaction.getPrice() <= maxPrice) {
+          expected.add(row);
+        }
+      }
+      String query = "(" + begin + ", " + end + ", " + minQuantity + ", " + maxPrice + ")";
+      assertEquals(expected, indexed.rows(begin, end, minQuantity, maxPrice), "rows" + query);
+      assertEquals(expected.getLongCardinality(), indexed.count(begin, end, minQuantity, maxPrice), "count" + query);
+      assertEquals(expected, instrumented.rows(begin, end, minQuantity, maxPrice), "instrumented rows" + query);
+      assertEquals(expected.getLongCardinality(), instrumented.count(begin, end, minQuantity, maxPrice),
+          "instrumented count" + query);
+      cardinality += 2 * expected.getLongCardinality();
+    }
+    assertEquals(0, indexed.count(maxTime + 100_000, maxTime + 200_000, Long.MIN_VALUE, Long.MAX_VALUE),
+        "after the data");
+    assertEquals(0, indexed.count(Long.MIN_VALUE, minTime - 1, Long.MIN_VALUE, Long.MAX_VALUE), "before the data");
+    QueryMetrics.Snapshot snapshot = metrics.snapshot();
+    assertEquals(2L * queries, snapshot.calls(), "calls");
+    assertEquals(cardinality, snapshot.cardinality(), "cardinality");
+  }
+}
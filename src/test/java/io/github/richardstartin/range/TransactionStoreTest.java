@@ -0,0 +1,154 @@
+package io.github.richardstartin.range;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import org.roaringbitmap.RoaringBitmap;
+
+class TransactionStoreTest {
+
+  @Test
+  void queriesMatchScanAfterDeletesUpdatesAndCompaction() throws InterruptedException {
+    SplittableRandom random = new SplittableRandom(42);
+    ExecutorService compactor = Executors.newSingleThreadExecutor();
+    Map<Integer, Transaction> live = new HashMap<>();
+    try (TransactionStore store = new TransactionStore(1000, 0.2, compactor)) {
+      long time = 0;
+      for (int i = 0; i < 10_500; i++) {
+        Transaction transaction = randomTransaction(random, time += random.nextInt(3));
+        live.put(store.append(transaction), transaction);
+      }
+      for (int i = 0; i < 6000; i++) {
+        List<Integer> rowIds = new ArrayList<>(live.keySet());
+        int rowId = rowIds.get(random.nextInt(rowIds.size()));
+        if (random.nextBoolean()) {
+          assertTrue(store.delete(rowId), "delete(" + rowId + ")");
+        } else {
+          Transaction transaction = randomTransaction(random, random.nextLong(0, time));
+          live.put(store.update(rowId, transaction), transaction);
+        }
+        live.remove(rowId);
+        assertFalse(store.delete(rowId), "second delete(" + rowId + ")");
+      }
+      compactor.shutdown();
+      assertTrue(compactor.awaitTermination(1, TimeUnit.MINUTES));
+      assertTrue(store.tombstoneRatio() <= 0.2, "tombstone ratio " + store.tombstoneRatio());
+      assertMatches(store, live, random);
+    }
+  }
+
+  @Test
+  void deletesDuringCompactionAreCarriedOver() throws Exception {
+    ExecutorService compactor = Executors.newSingleThreadExecutor();
+    Map<Integer, Transaction> live = new HashMap<>();
+    try (TransactionStore store = new TransactionStore(1024, 0.01, compactor)) {
+      SplittableRandom random = new SplittableRandom(43);
+      for (int i = 0; i < 32 * 1024; i++) {
+        Transaction transaction = randomTransaction(random, i);
+        live.put(store.append(transaction), transaction);
+      }
+      List<Integer> deletes = new ArrayList<>(live.keySet());
+      for (int i = deletes.size() - 1; i > 0; i--) {
+        int j = random.nextInt(i + 1);
+        Integer swap = deletes.get(i);
+        deletes.set(i, deletes.get(j));
+        deletes.set(j, swap);
+      }
+      List<Integer> deleted = deletes.subList(0, deletes.size() / 3);
+      Thread deleter = new Thread(() -> {
+        for (int rowId : deleted) {
+          store.delete(rowId);
+        }
+      });
+      deleter.start();
+      while (deleter.isAlive()) {
+        store.compact();
+      }
+      deleter.join();
+      compactor.shutdown();
+      assertTrue(compactor.awaitTermination(1, TimeUnit.MINUTES));
+      for (int rowId : deleted) {
+        live.remove(rowId);
+        assertFalse(store.delete(rowId), "deleted row " + rowId + " is still live");
+      }
+      assertMatches(store, live, random);
+    }
+  }
+
+  @Test
+  void queriesSeeSealedSegmentsWhileAppending() throws Exception {
+    try (TransactionStore store = new TransactionStore(4, 1D)) {
+      int rows = 200_000;
+      AtomicInteger appended = new AtomicInteger();
+      Thread writer = new Thread(() -> {
+        for (int i = 0; i < rows; i++) {
+          appended.incrementAndGet();
+          store.append(new Transaction(1, 1, i));
+        }
+      });
+      writer.start();
+      long previous = 0;
+      while (writer.isAlive()) {
+        long count = store.count(0, Long.MAX_VALUE, 0, Long.MAX_VALUE);
+        assertTrue(count >= previous, "count went from " + previous + " to " + count);
+        assertTrue(count <= appended.get(), "count " + count + " exceeds " + appended.get() + " appended rows");
+        previous = count;
+      }
+      writer.join();
+      assertEquals(rows, (int) store.count(0, Long.MAX_VALUE, 0, Long.MAX_VALUE), "count after appends");
+    }
+  }
+
+  @Test
+  void windowsOutsideTheDataAreEmpty() {
+    try (TransactionStore store = new TransactionStore(100, 1D)) {
+      for (int i = 0; i < 1000; i++) {
+        store.append(new Transaction(10, 100, i));
+      }
+      store.append(new Transaction(10, 100, 50));
+      assertEquals(0, store.count(5000, 6000, 0, Long.MAX_VALUE), "count after the data");
+      assertTrue(store.find(5000, 6000, 0, Long.MAX_VALUE).isEmpty(), "find after the data");
+      assertEquals(0, store.count(-6000, -5000, 0, Long.MAX_VALUE), "count before the data");
+      assertEquals(0, store.count(600, 400, 0, Long.MAX_VALUE), "count over an inverted window");
+      assertEquals(0, store.count(0, 1000, 1000, Long.MAX_VALUE), "count above the quantities");
+      assertEquals(0, store.count(0, 1000, 0, 9), "count below the prices");
+      assertEquals(1001, store.count(Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE),
+          "count over the whole domain");
+      assertEquals(2, store.count(50, 50, 0, Long.MAX_VALUE), "count at a single timestamp");
+    }
+  }
+
+  private static Transaction randomTransaction(SplittableRandom random, long timestamp) {
+    return new Transaction(random.nextInt(1, 100), random.nextLong(1, 1000), timestamp);
+  }
+
+  private static void assertMatches(TransactionStore store, Map<Integer, Transaction> live, SplittableRandom random) {
+    for (int i = 0; i < 100; i++) {
+      long begin = random.nextLong(0, 40_000);
+      long end = begin + random.nextLong(0, 10_000);
+      int minQuantity = random.nextInt(0, 100);
+      long maxPrice = random.nextLong(0, 1000);
+      RoaringBitmap expected = new RoaringBitmap();
+      live.forEach((rowId, transaction) -> {
+        if (transaction.getTimestamp() >= begin && transaction.getTimestamp() <= end
+            && transaction.getQuantity() >= minQuantity && transaction.getPrice() <= maxPrice) {
+          expected.add(rowId);
+        }
+      });
+      String query = "(" + begin + ", " + end + ", " + minQuantity + ", " + maxPrice + ")";
+      assertEquals(expected, store.find(begin, end, minQuantity, maxPrice), "find" + query);
+      assertEquals(expected.getLongCardinality(), store.count(begin, end, minQuantity, maxPrice), "count" + query);
+    }
+  }
+}
@@ -0,0 +1,56 @@
+package io.github.richardstartin.range;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.SplittableRandom;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.roaringbitmap.RoaringBitmap;
+
+class ZOrderIndexTest {
+
+  private static final int SIZE = 10_000;
+
+  @ParameterizedTest
+  @ValueSource(ints = {1, 7, 64, 1024, SIZE + 1})
+  void boxQueriesMatchScan(int blockSize) {
+    long[] x = new long[SIZE];
+    long[] y = new long[SIZE];
+    long[] z = new long[SIZE];
+    SplittableRandom random = new SplittableRandom(42);
+    long time = 1_000_000;
+    for (int i = 0; i < SIZE; i++) {
+      x[i] = time += random.nextInt(3);
+      y[i] = random.nextLong(-1_000_000, 1_000_000);
+      z[i] = random.nextInt(1, 10_000);
+    }
+    ZOrderIndex index = new ZOrderIndex(x, y, z, blockSize);
+    SplittableRandom queries = new SplittableRandom(1);
+    for (int i = 0; i < 1000; i++) {
+      long minX = bound(queries, 999_000, x[SIZE - 1] + 1000, Long.MIN_VALUE);
+      long maxX = bound(queries, minX == Long.MIN_VALUE ? 999_000 : minX - 10, x[SIZE - 1] + 1000, Long.MAX_VALUE);
+      long minY = bound(queries, -1_100_000, 1_100_000, Long.MIN_VALUE);
+      long maxY = bound(queries, minY == Long.MIN_VALUE ? -1_100_000 : minY - 10, 1_100_000, Long.MAX_VALUE);
+      long minZ = bound(queries, 0, 11_000, Long.MIN_VALUE);
+      long maxZ = bound(queries, minZ == Long.MIN_VALUE ? 0 : minZ - 10, 11_000, Long.MAX_VALUE);
+      RoaringBitmap expected = new RoaringBitmap();
+      for (int row = 0; row < SIZE; row++) {
+        if (x[row] >= minX && x[row] <= maxX && y[row] >= minY && y[row] <= maxY
+            && z[row] >= minZ && z[row] <= maxZ) {
+          expected.add(row);
+        }
+      }
+      String query = "(" + minX + ", " + maxX + ", " + minY + ", " + maxY + ", " + minZ + ", " + maxZ + ")";
+      assertEquals(expected, index.rows(minX, maxX, minY, maxY, minZ, maxZ), "rows" + query);
+      assertEquals(expected.getLongCardinality(), index.count(minX, maxX, minY, maxY, minZ, maxZ), "count" + query);
+    }
+    assertEquals(SIZE, index.count(Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE,
+        Long.MIN_VALUE, Long.MAX_VALUE), "count over the whole domain");
+    assertEquals(SIZE, index.rows(Long.MIN_VALUE, Long.MAX_VALUE, Long.MIN_VALUE, Long.MAX_VALUE,
+        Long.MIN_VALUE, Long.MAX_VALUE).getCardinality(), "rows over the whole domain");
+  }
+
+  private static long bound(SplittableRandom random, long from, long to, long open) {
+    return random.nextInt(8) == 0 ? open : random.nextLong(Math.min(from, to - 1), to);
+  }
+}